@@ -85,6 +85,8 @@ benchmark {
             include("InferenceForInApplicableCandidate")
             include("InferenceFromArgumentCallsBenchmark")
             include("InferenceFromReturnTypeCallsBenchmark")
+            include("InferenceDeepHierarchyCallsBenchmark")
+            include("InferenceLargeConstraintSystemBenchmark")
         }
     }
     targets {
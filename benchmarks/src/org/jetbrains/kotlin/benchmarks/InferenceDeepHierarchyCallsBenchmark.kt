@@ -0,0 +1,57 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.benchmarks
+
+import org.jetbrains.kotlin.types.ClassSupertypesCache
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+open class InferenceDeepHierarchyCallsBenchmark : AbstractInferenceBenchmark() {
+
+    @Param("1", "10", "100", "1000", "5000", "10000")
+    private var size: Int = 0
+
+    @Param("true", "false")
+    private var useSupertypesCache: Boolean = false
+
+    @Setup(Level.Trial)
+    fun setUpSupertypesCache() {
+        System.setProperty(ClassSupertypesCache.ENABLED_PROPERTY, useSupertypesCache.toString())
+    }
+
+    @TearDown(Level.Trial)
+    fun tearDownSupertypesCache() {
+        System.clearProperty(ClassSupertypesCache.ENABLED_PROPERTY)
+    }
+
+    @Benchmark
+    fun benchmark(bh: Blackhole) {
+        analyzeGreenFile(bh)
+    }
+
+    override fun buildText() =
+            """
+            |interface Base0<T>
+            |${(1..HIERARCHY_DEPTH).joinToString("\n") { "interface Base$it<T> : Base${it - 1}<T>" }}
+            |class Impl<T> : Base$HIERARCHY_DEPTH<T>, Comparable<Impl<T>> {
+            |    override fun compareTo(other: Impl<T>): Int = 0
+            |}
+            |fun <T> produce(x: T): Impl<T> = Impl()
+            |fun <T> consume(b: Base0<T>): T = null!!
+            |fun <T : Comparable<T>> maxOf2(a: T, b: T): T = a
+            |fun bar(v: Int) {
+            |${(1..size).joinToString("\n") { "    consume(maxOf2(produce(v), produce(consume(produce(v)))))" }}
+            |}
+            """.trimMargin()
+
+    private companion object {
+        const val HIERARCHY_DEPTH = 20
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.benchmarks
+
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+open class InferenceLargeConstraintSystemBenchmark : AbstractInferenceBenchmark() {
+
+    @Param("10", "100", "500", "1000")
+    private var size: Int = 0
+
+    @Benchmark
+    fun benchmark(bh: Blackhole) {
+        analyzeGreenFile(bh)
+    }
+
+    // One call with `size` lower constraints on the same type variable, which are related through
+    // other type variables from nested generic calls and builder-like lambdas
+    override fun buildText() =
+            """
+            |interface Base
+            |class Inv<T>(val value: T)
+            |${(1..size).joinToString("\n") { "class C$it : Base" }}
+            |fun <T> select(vararg xs: T): T = xs[0]
+            |fun <K> id(x: K): K = x
+            |fun <R> build(block: () -> R): Inv<R> = Inv(block())
+            |fun bar(): Base {
+            |    val result = select(
+            |${(1..size).joinToString(",\n") { "        id(build { C$it() }).value" }}
+            |    )
+            |    return result
+            |}
+            """.trimMargin()
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.benchmarks
+
+import com.google.gwt.dev.js.rhino.CodePosition
+import com.google.gwt.dev.js.rhino.ErrorReporter
+import org.jetbrains.kotlin.js.backend.ast.JsProgram
+import org.jetbrains.kotlin.js.parser.parse
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+open class JsParserBenchmark {
+
+    @Param("100", "1000", "10000")
+    private var size: Int = 0
+
+    private lateinit var code: String
+
+    @Setup(Level.Trial)
+    fun buildBundle() {
+        code = buildText()
+    }
+
+    @Benchmark
+    fun benchmark(bh: Blackhole) {
+        val statements = parse(code, ThrowingReporter, JsProgram().scope, "bundle.js") ?: error("Failed to parse bundle")
+        bh.consume(statements)
+    }
+
+    // Resembles code of a module generated by Kotlin/JS, which is what DCE and `js()` calls parse
+    private fun buildText() =
+            """
+            |(function (_, Kotlin) {
+            |  'use strict';
+            |  var Unit = Kotlin.kotlin.Unit;
+            |  var Kind_CLASS = Kotlin.Kind.CLASS;
+            |  var ensureNotNull = Kotlin.ensureNotNull;
+            |${(1..size).joinToString("\n") { i ->
+                """
+                |  function Foo$i(value, name) {
+                |    this.value_0 = value;
+                |    this.name = name !== void 0 ? name : 'foo$i';
+                |  }
+                |  Foo$i.prototype.compute_za3lpa$ = function (x) {
+                |    var tmp$, tmp${'$'}_0;
+                |    var result = 0;
+                |    for (var i = 0; i < x; i++) {
+                |      result = result + Kotlin.imul(this.value_0, i + $i | 0) | 0;
+                |    }
+                |    tmp${'$'}_0 = (tmp$ = this.name) != null ? tmp$.length : null;
+                |    return ensureNotNull(tmp${'$'}_0) + result * 0.5 + 1.0E-3;
+                |  };
+                |  Foo$i.${'$'}metadata${'$'} = {kind: Kind_CLASS, simpleName: 'Foo$i', interfaces: []};
+                |  _.Foo$i = Foo$i;
+                """.trimMargin()
+            }}
+            |  Kotlin.defineModule('bundle', _);
+            |  return _;
+            |}(module.exports, require('kotlin')));
+            """.trimMargin()
+
+    private object ThrowingReporter : ErrorReporter {
+        override fun warning(message: String, startPosition: CodePosition, endPosition: CodePosition) {}
+
+        override fun error(message: String, startPosition: CodePosition, endPosition: CodePosition) {
+            throw IllegalStateException("$message at ${startPosition.line}:${startPosition.offset}")
+        }
+    }
+}
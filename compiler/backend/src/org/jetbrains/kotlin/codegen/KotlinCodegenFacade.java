@@ -16,26 +16,40 @@
 
 package org.jetbrains.kotlin.codegen;
 
+import kotlin.Unit;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
+import org.jetbrains.kotlin.config.CommonConfigurationKeys;
 import org.jetbrains.kotlin.name.FqName;
 import org.jetbrains.kotlin.progress.ProgressIndicatorAndCompilationCanceledStatus;
 import org.jetbrains.kotlin.psi.KtFile;
+import org.jetbrains.kotlin.utils.PhaseMeasurements;
+import org.jetbrains.kotlin.utils.PhaseMeasurementsKt;
 
 import java.util.Collection;
 
 public class KotlinCodegenFacade {
+    public static final String PHASE_MEASUREMENT_KIND = "Codegen stage";
+
     public static void compileCorrectFiles(@NotNull GenerationState state) {
         ProgressIndicatorAndCompilationCanceledStatus.checkCanceled();
 
-        state.beforeCompile();
+        measure(state, "beforeCompile", state::beforeCompile);
 
         ProgressIndicatorAndCompilationCanceledStatus.checkCanceled();
 
-        state.getCodegenFactory().generateModule(state, state.getFiles());
+        measure(state, "generateModule", () -> state.getCodegenFactory().generateModule(state, state.getFiles()));
 
         CodegenFactory.Companion.doCheckCancelled(state);
-        state.getFactory().done();
+        measure(state, "done", state.getFactory()::done);
+    }
+
+    private static void measure(@NotNull GenerationState state, @NotNull String stage, @NotNull Runnable block) {
+        PhaseMeasurements measurements = state.getConfiguration().get(CommonConfigurationKeys.PHASE_MEASUREMENTS);
+        PhaseMeasurementsKt.measure(measurements, PHASE_MEASUREMENT_KIND, stage, () -> {
+            block.run();
+            return Unit.INSTANCE;
+        });
     }
 
     public static void generatePackage(@NotNull GenerationState state, @NotNull FqName packageFqName, @NotNull Collection<KtFile> files) {
@@ -17,7 +17,7 @@
 package org.jetbrains.kotlin.codegen.optimization
 
 import org.jetbrains.kotlin.codegen.inline.remove
-import org.jetbrains.kotlin.codegen.optimization.common.OptimizationBasicInterpreter
+import org.jetbrains.kotlin.codegen.optimization.common.findReachableInstructions
 import org.jetbrains.kotlin.codegen.optimization.common.removeEmptyCatchBlocks
 import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer
 import org.jetbrains.org.objectweb.asm.tree.AbstractInsnNode
@@ -30,18 +30,20 @@ class DeadCodeEliminationMethodTransformer : MethodTransformer() {
         transformWithResult(internalClassName, methodNode)
     }
 
-    fun transformWithResult(internalClassName: String, methodNode: MethodNode): Result {
-        val frames = analyze(internalClassName, methodNode, OptimizationBasicInterpreter())
-        return removeDeadCodeByFrames(methodNode, frames)
-    }
+    // Only reachability matters here, so there is no need to compute (and allocate) frames for every instruction
+    fun transformWithResult(@Suppress("UNUSED_PARAMETER") internalClassName: String, methodNode: MethodNode): Result =
+        removeDeadCode(methodNode, methodNode.findReachableInstructions())
+
+    fun removeDeadCodeByFrames(methodNode: MethodNode, frames: Array<out Any?>): Result =
+        removeDeadCode(methodNode, BooleanArray(frames.size) { frames[it] != null })
 
-    fun removeDeadCodeByFrames(methodNode: MethodNode, frames: Array<out Any?>): Result {
+    private fun removeDeadCode(methodNode: MethodNode, reachable: BooleanArray): Result {
         val insnsToRemove = ArrayList<AbstractInsnNode>()
 
         val insns = methodNode.instructions.toArray()
         for (i in insns.indices) {
             val insn = insns[i]
-            if (shouldRemove(insn, i, frames)) {
+            if (shouldRemove(insn, i, reachable)) {
                 insnsToRemove.add(insn)
             }
         }
@@ -54,18 +56,18 @@ class DeadCodeEliminationMethodTransformer : MethodTransformer() {
         return Result(insnsToRemove.toSet())
     }
 
-    private fun shouldRemove(insn: AbstractInsnNode, index: Int, frames: Array<out Any?>): Boolean =
+    private fun shouldRemove(insn: AbstractInsnNode, index: Int, reachable: BooleanArray): Boolean =
         when (insn) {
             is LabelNode ->
                 // Do not remove label nodes because they can be referred by try/catch blocks or local variables table
                 false
             is LineNumberNode ->
-                isDeadLineNumber(insn, index, frames)
+                isDeadLineNumber(insn, index, reachable)
             else ->
-                frames[index] == null
+                !reachable[index]
         }
 
-    private fun isDeadLineNumber(insn: LineNumberNode, index: Int, frames: Array<out Any?>): Boolean {
+    private fun isDeadLineNumber(insn: LineNumberNode, index: Int, reachable: BooleanArray): Boolean {
         // Line number node is "dead" if the corresponding line number interval
         // contains at least one "dead" meaningful instruction and no "live" meaningful instructions.
         var finger: AbstractInsnNode = insn
@@ -80,7 +82,7 @@ class DeadCodeEliminationMethodTransformer : MethodTransformer() {
                 is LineNumberNode ->
                     if (finger.line != insn.line) return hasDeadInsn
                 else -> {
-                    if (frames[fingerIndex] != null) return false
+                    if (reachable[fingerIndex]) return false
                     hasDeadInsn = true
                 }
             }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization.common
+
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.tree.*
+
+/**
+ * Computes which instructions are reachable from the method entry, following the same control flow edges
+ * (including exception edges) as [MethodAnalyzer] and [org.jetbrains.org.objectweb.asm.tree.analysis.Analyzer].
+ *
+ * An instruction is reachable iff a data flow analysis would compute a non-null frame for it,
+ * but no frames are allocated, so this is preferred when only reachability is required.
+ */
+fun MethodNode.findReachableInstructions(): BooleanArray {
+    val insnList = instructions
+    val size = insnList.size()
+    val reachable = BooleanArray(size)
+    if (size == 0) return reachable
+
+    val handlers = arrayOfNulls<MutableList<LabelNode>>(size)
+    for (tcb in tryCatchBlocks) {
+        val begin = insnList.indexOf(tcb.start)
+        val end = insnList.indexOf(tcb.end)
+        for (i in begin until end) {
+            (handlers[i] ?: ArrayList<LabelNode>().also { handlers[i] = it }).add(tcb.handler)
+        }
+    }
+
+    val queue = IntArray(size)
+    var top = 0
+
+    fun visit(index: Int) {
+        if (index < size && !reachable[index]) {
+            reachable[index] = true
+            queue[top++] = index
+        }
+    }
+
+    visit(0)
+    while (top > 0) {
+        val index = queue[--top]
+        val insn = insnList[index]
+        when (insn) {
+            is JumpInsnNode -> {
+                if (insn.opcode != Opcodes.GOTO) visit(index + 1)
+                visit(insnList.indexOf(insn.label))
+            }
+            is TableSwitchInsnNode -> {
+                visit(insnList.indexOf(insn.dflt))
+                insn.labels.forEach { visit(insnList.indexOf(it)) }
+            }
+            is LookupSwitchInsnNode -> {
+                visit(insnList.indexOf(insn.dflt))
+                insn.labels.forEach { visit(insnList.indexOf(it)) }
+            }
+            else -> {
+                val opcode = insn.opcode
+                if (opcode != Opcodes.ATHROW && (opcode < Opcodes.IRETURN || opcode > Opcodes.RETURN)) {
+                    visit(index + 1)
+                }
+            }
+        }
+        handlers[index]?.forEach { visit(insnList.indexOf(it)) }
+    }
+
+    return reachable
+}
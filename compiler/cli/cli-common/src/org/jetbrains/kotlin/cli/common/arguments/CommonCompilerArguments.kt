@@ -190,7 +190,7 @@ abstract class CommonCompilerArguments : CommonToolArguments() {
     @Argument(
         value = "-Xdump-perf",
         valueDescription = "<path>",
-        description = "Dump detailed performance statistics to the specified file"
+        description = "Dump detailed performance statistics to the specified file,\nin JSON format if the file has the .json extension"
     )
     var dumpPerf: String? by NullableStringFreezableVar(null)
 
@@ -28,6 +28,7 @@ import org.jetbrains.kotlin.cli.common.messages.*
 import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity.INFO
 import org.jetbrains.kotlin.cli.jvm.plugins.PluginCliParser
 import org.jetbrains.kotlin.compiler.plugin.ComponentRegistrar
+import org.jetbrains.kotlin.config.CommonConfigurationKeys
 import org.jetbrains.kotlin.config.CompilerConfiguration
 import org.jetbrains.kotlin.config.Services
 import org.jetbrains.kotlin.metadata.deserialization.BinaryVersion
@@ -70,6 +71,7 @@ abstract class CLICompiler<A : CommonCompilerArguments> : CLITool<A>() {
         }
 
         configuration.put(CLIConfigurationKeys.PERF_MANAGER, performanceManager)
+        configuration.put(CommonConfigurationKeys.PHASE_MEASUREMENTS, performanceManager.phaseMeasurements)
         try {
             setupCommonArguments(configuration, arguments)
             setupPlatformSpecificArgumentsAndServices(configuration, arguments, services)
@@ -120,6 +122,7 @@ abstract class CLICompiler<A : CommonCompilerArguments> : CLITool<A>() {
             MessageCollectorUtil.reportException(collector, t)
             return INTERNAL_ERROR
         } finally {
+            performanceManager.phaseMeasurements.isEnabled = false
             collector.flush()
         }
     }
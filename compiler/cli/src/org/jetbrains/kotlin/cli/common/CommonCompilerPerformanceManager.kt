@@ -6,6 +6,7 @@
 package org.jetbrains.kotlin.cli.common
 
 import org.jetbrains.kotlin.util.PerformanceCounter
+import org.jetbrains.kotlin.utils.PhaseMeasurements
 import java.io.File
 import java.lang.management.GarbageCollectorMXBean
 import java.lang.management.ManagementFactory
@@ -31,12 +32,18 @@ abstract class CommonCompilerPerformanceManager(private val presentableName: Str
     fun getTargetInfo(): String =
         "$targetDescription, $files files ($lines lines)"
 
+    /**
+     * Statistics of individual compiler phases of this compilation, passed to the compiler in its configuration.
+     */
+    val phaseMeasurements = PhaseMeasurements()
+
     fun getMeasurementResults(): List<PerformanceMeasurement> = measurements
 
     fun enableCollectingPerformanceStatistics() {
         isEnabled = true
         PerformanceCounter.setTimeCounterEnabled(true)
         ManagementFactory.getGarbageCollectorMXBeans().associateTo(startGCData) { it.name to GCData(it) }
+        phaseMeasurements.isEnabled = true
     }
 
     private fun deltaTime(start: Long): Long = PerformanceCounter.currentTime() - start
@@ -55,6 +62,7 @@ abstract class CommonCompilerPerformanceManager(private val presentableName: Str
         recordGcTime()
         recordJitCompilationTime()
         recordPerfCountersMeasurements()
+        recordPhaseMeasurements()
     }
 
     open fun notifyAnalysisStarted() {
@@ -101,8 +109,11 @@ abstract class CommonCompilerPerformanceManager(private val presentableName: Str
         )
     }
 
+    /**
+     * Writes the performance report to [destination], as JSON if its extension is `json` and as text otherwise.
+     */
     fun dumpPerformanceReport(destination: File) {
-        destination.writeBytes(createPerformanceReport())
+        destination.writeBytes(if (destination.extension == "json") createJsonPerformanceReport() else createPerformanceReport())
     }
 
     private fun recordGcTime() {
@@ -136,11 +147,62 @@ abstract class CommonCompilerPerformanceManager(private val presentableName: Str
         PerformanceCounter.report { s -> measurements += PerformanceCounterMeasurement(s) }
     }
 
+    private fun recordPhaseMeasurements() {
+        phaseMeasurements.getPhases().mapTo(measurements) {
+            CompilerPhaseMeasurement(
+                it.kind, it.name, it.count, TimeUnit.NANOSECONDS.toMillis(it.timeNanos), it.allocatedBytes, it.maxUsedHeapBytesAfterRun
+            )
+        }
+    }
+
     private fun createPerformanceReport(): ByteArray = buildString {
         append("$presentableName performance report\n")
         measurements.map { it.render() }.sorted().forEach { append("$it\n") }
     }.toByteArray()
 
+    private fun createJsonPerformanceReport(): ByteArray = buildString {
+        fun String.quoted() = "\"" + replace("\\", "\\\\").replace("\"", "\\\"") + "\""
+
+        append("{\n")
+        append("  \"compiler\": ${presentableName.quoted()},\n")
+        append("  \"target\": ${targetDescription?.quoted()},\n")
+        append("  \"files\": $files,\n")
+        append("  \"lines\": $lines,\n")
+
+        val stages = measurements.mapNotNull {
+            when (it) {
+                is CompilerInitializationMeasurement -> "INIT" to it.milliseconds
+                is CodeAnalysisMeasurement -> "ANALYZE" to it.milliseconds
+                is CodeGenerationMeasurement -> "GENERATE" to it.milliseconds
+                is IRMeasurement -> "IR ${it.kind}" to it.milliseconds
+                else -> null
+            }
+        }
+        append("  \"stages\": [")
+        stages.joinTo(this, ",") { (name, milliseconds) ->
+            "\n    {\"name\": ${name.quoted()}, \"timeMs\": $milliseconds}"
+        }
+        append("\n  ],\n")
+
+        append("  \"phases\": [")
+        measurements.filterIsInstance<CompilerPhaseMeasurement>().joinTo(this, ",") {
+            "\n    {\"kind\": ${it.kind.quoted()}, \"name\": ${it.name.quoted()}, \"count\": ${it.count}, " +
+                    "\"timeMs\": ${it.milliseconds}, \"allocatedBytes\": ${it.allocatedBytes}, " +
+                    "\"maxUsedHeapBytesAfterRun\": ${it.maxUsedHeapBytesAfterRun}}"
+        }
+        append("\n  ],\n")
+
+        append("  \"gc\": [")
+        measurements.filterIsInstance<GarbageCollectionMeasurement>().joinTo(this, ",") {
+            "\n    {\"name\": ${it.garbageCollectionKind.quoted()}, \"timeMs\": ${it.milliseconds}, \"count\": ${it.count}}"
+        }
+        append("\n  ],\n")
+
+        val jitTime = measurements.filterIsInstance<JitCompilationMeasurement>().firstOrNull()?.milliseconds
+        append("  \"jitTimeMs\": $jitTime\n")
+        append("}\n")
+    }.toByteArray()
+
     open fun notifyRepeat(total: Int, number: Int) {}
 
     private data class GCData(val name: String, val collectionTime: Long, val collectionCount: Long) {
@@ -29,6 +29,9 @@ fun OutputFileCollection.writeAll(outputDir: File, report: ((file: OutputFile, s
         val sources = file.sourceFiles
         val output = File(outputDir, file.relativePath)
         report?.invoke(file, sources, output)
+        // Replace rather than overwrite existing files, so hard links to previous outputs keep their content
+        // (the Gradle plugin links outputs instead of copying them when it backs them up before an incremental build)
+        output.delete()
         FileUtil.writeToFile(output, file.asByteArray())
     }
 }
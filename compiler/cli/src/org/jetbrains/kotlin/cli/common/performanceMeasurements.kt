@@ -9,11 +9,11 @@ interface PerformanceMeasurement {
     fun render(): String
 }
 
-class JitCompilationMeasurement(private val milliseconds: Long) : PerformanceMeasurement {
+class JitCompilationMeasurement(val milliseconds: Long) : PerformanceMeasurement {
     override fun render(): String = "JIT time is $milliseconds ms"
 }
 
-class CompilerInitializationMeasurement(private val milliseconds: Long) : PerformanceMeasurement {
+class CompilerInitializationMeasurement(val milliseconds: Long) : PerformanceMeasurement {
     override fun render(): String = "INIT: Compiler initialized in $milliseconds ms"
 }
 
@@ -21,7 +21,7 @@ class CodeAnalysisMeasurement(private val lines: Int?, val milliseconds: Long) :
     override fun render(): String = formatMeasurement("ANALYZE", milliseconds, lines)
 }
 
-class CodeGenerationMeasurement(private val lines: Int?, private val milliseconds: Long) : PerformanceMeasurement {
+class CodeGenerationMeasurement(private val lines: Int?, val milliseconds: Long) : PerformanceMeasurement {
     override fun render(): String = formatMeasurement("GENERATE", milliseconds, lines)
 }
 
@@ -41,6 +41,22 @@ class IRMeasurement(val lines: Int?, val milliseconds: Long, val kind: Kind) : P
     }
 }
 
+class CompilerPhaseMeasurement(
+    val kind: String,
+    val name: String,
+    val count: Int,
+    val milliseconds: Long,
+    val allocatedBytes: Long,
+    val maxUsedHeapBytesAfterRun: Long
+) : PerformanceMeasurement {
+    override fun render(): String =
+        "PHASE: $kind $name: $milliseconds ms, $count runs, ${allocatedBytes / MB} MB allocated, ${maxUsedHeapBytesAfterRun / MB} MB max heap used after a run"
+
+    private companion object {
+        const val MB = 1024 * 1024
+    }
+}
+
 private fun formatMeasurement(name: String, time: Long, lines: Int?): String =
     "%15s%8s ms".format(name, time) +
             (lines?.let {
@@ -335,7 +335,10 @@ object KotlinToJVMBytecodeCompiler {
                 }
             }
 
-            val firAnalyzerFacade = FirAnalyzerFacade(session, moduleConfiguration.languageVersionSettings, ktFiles)
+            val firAnalyzerFacade = FirAnalyzerFacade(
+                session, moduleConfiguration.languageVersionSettings, ktFiles,
+                phaseMeasurements = moduleConfiguration[CommonConfigurationKeys.PHASE_MEASUREMENTS]
+            )
 
             firAnalyzerFacade.runResolution()
             val firDiagnostics = firAnalyzerFacade.runCheckers().values.flatten()
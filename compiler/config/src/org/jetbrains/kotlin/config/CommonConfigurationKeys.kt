@@ -19,6 +19,7 @@ package org.jetbrains.kotlin.config
 import org.jetbrains.kotlin.incremental.components.ExpectActualTracker
 import org.jetbrains.kotlin.incremental.components.LookupTracker
 import org.jetbrains.kotlin.metadata.deserialization.BinaryVersion
+import org.jetbrains.kotlin.utils.PhaseMeasurements
 
 object CommonConfigurationKeys {
     @JvmField
@@ -50,6 +51,9 @@ object CommonConfigurationKeys {
 
     @JvmField
     val USE_FIR_EXTENDED_CHECKERS = CompilerConfigurationKey.create<Boolean>("fir extended checkers")
+
+    @JvmField
+    val PHASE_MEASUREMENTS = CompilerConfigurationKey.create<PhaseMeasurements>("phase measurements")
 }
 
 var CompilerConfiguration.languageVersionSettings: LanguageVersionSettings
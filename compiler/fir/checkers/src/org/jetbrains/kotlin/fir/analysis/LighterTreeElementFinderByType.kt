@@ -31,7 +31,14 @@ class LighterTreeElementFinderByType(
 
         if (currentDepth == depth) return null
 
-        for (child in node.getChildren()) {
+        if (currentDepth == childrenRefs.size) {
+            childrenRefs.add(Ref())
+        }
+        val childrenRef = childrenRefs[currentDepth]
+        val count = tree.getChildren(node, childrenRef)
+        val children = childrenRef.get()
+        for (i in 0 until count) {
+            val child = children[i] ?: continue
             val result = visitNode(child, currentDepth + 1)
             if (result != null) return result
         }
@@ -39,9 +46,6 @@ class LighterTreeElementFinderByType(
         return null
     }
 
-    private fun LighterASTNode.getChildren(): List<LighterASTNode> {
-        val ref = Ref<Array<LighterASTNode?>>()
-        tree.getChildren(this, ref)
-        return ref.get()?.filterNotNull() ?: emptyList()
-    }
+    // Children arrays reused between siblings, one per depth. Only the first `count` elements of an array are valid
+    private val childrenRefs = ArrayList<Ref<Array<LighterASTNode?>>>()
 }
\ No newline at end of file
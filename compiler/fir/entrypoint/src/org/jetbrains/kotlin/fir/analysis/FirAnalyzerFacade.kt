@@ -26,6 +26,7 @@ import org.jetbrains.kotlin.ir.backend.jvm.serialization.JvmManglerDesc
 import org.jetbrains.kotlin.ir.declarations.impl.IrFactoryImpl
 import org.jetbrains.kotlin.psi.KtFile
 import org.jetbrains.kotlin.psi2ir.generators.GeneratorExtensions
+import org.jetbrains.kotlin.utils.PhaseMeasurements
 import java.io.File
 
 class FirAnalyzerFacade(
@@ -33,7 +34,8 @@ class FirAnalyzerFacade(
     val languageVersionSettings: LanguageVersionSettings,
     val ktFiles: Collection<KtFile> = emptyList(), // may be empty if light tree mode enabled
     val originalFiles: Collection<File> = emptyList(), // may be empty if light tree mode disabled
-    val useLightTree: Boolean = false
+    val useLightTree: Boolean = false,
+    val phaseMeasurements: PhaseMeasurements? = null
 ) {
     private var firFiles: List<FirFile>? = null
     private var scopeSession: ScopeSession? = null
@@ -62,7 +64,7 @@ class FirAnalyzerFacade(
     fun runResolution(): List<FirFile> {
         if (firFiles == null) buildRawFir()
         if (scopeSession != null) return firFiles!!
-        val resolveProcessor = FirTotalResolveProcessor(session)
+        val resolveProcessor = FirTotalResolveProcessor(session, phaseMeasurements)
         resolveProcessor.process(firFiles!!)
         scopeSession = resolveProcessor.scopeSession
         return firFiles!!
@@ -162,28 +162,45 @@ abstract class BaseConverter(
         return firstChild
     }
 
+    /*
+     * Children arrays reused by forEachChildren and forEachChildrenReturnList, one per nesting level of these calls.
+     * The tree structure fills the array passed in the ref and returns the number of children, so the arrays may contain
+     * stale nodes after the first `count` elements
+     */
+    @PublishedApi
+    internal val childrenRefs = ArrayList<Ref<Array<LighterASTNode?>>>()
+
+    @PublishedApi
+    internal var childrenRefsDepth = 0
+
+    @PublishedApi
+    internal fun acquireChildrenRef(): Ref<Array<LighterASTNode?>> {
+        if (childrenRefsDepth == childrenRefs.size) {
+            childrenRefs.add(Ref())
+        }
+        return childrenRefs[childrenRefsDepth++]
+    }
+
     @OptIn(ExperimentalContracts::class)
     protected inline fun LighterASTNode.forEachChildren(vararg skipTokens: KtToken, f: (LighterASTNode) -> Unit) {
-        val kidsArray = this.getChildrenAsArray()
-        for (kid in kidsArray) {
-            if (kid == null) break
-            val tokenType = kid.tokenType
-            if (COMMENTS.contains(tokenType) || tokenType == WHITE_SPACE || tokenType == SEMICOLON || tokenType in skipTokens) continue
-            f(kid)
+        val kidsRef = acquireChildrenRef()
+        try {
+            val count = tree.getChildren(this, kidsRef)
+            val kidsArray = kidsRef.get()
+            for (i in 0 until count) {
+                val kid = kidsArray[i] ?: break
+                val tokenType = kid.tokenType
+                if (COMMENTS.contains(tokenType) || tokenType == WHITE_SPACE || tokenType == SEMICOLON || tokenType in skipTokens) continue
+                f(kid)
+            }
+        } finally {
+            childrenRefsDepth--
         }
     }
 
     protected inline fun <T> LighterASTNode.forEachChildrenReturnList(f: (LighterASTNode, MutableList<T>) -> Unit): List<T> {
-        val kidsArray = this.getChildrenAsArray()
-
         val container = mutableListOf<T>()
-        for (kid in kidsArray) {
-            if (kid == null) break
-            val tokenType = kid.tokenType
-            if (COMMENTS.contains(tokenType) || tokenType == WHITE_SPACE || tokenType == SEMICOLON) continue
-            f(kid, container)
-        }
-
+        forEachChildren { kid -> f(kid, container) }
         return container
     }
 }
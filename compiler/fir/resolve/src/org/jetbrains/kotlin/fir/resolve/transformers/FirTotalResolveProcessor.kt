@@ -9,26 +9,34 @@ import org.jetbrains.kotlin.fir.FirSession
 import org.jetbrains.kotlin.fir.declarations.FirFile
 import org.jetbrains.kotlin.fir.declarations.FirResolvePhase
 import org.jetbrains.kotlin.fir.resolve.ScopeSession
+import org.jetbrains.kotlin.utils.PhaseMeasurements
+import org.jetbrains.kotlin.utils.measure
 
-class FirTotalResolveProcessor(session: FirSession) {
+class FirTotalResolveProcessor(session: FirSession, private val phaseMeasurements: PhaseMeasurements? = null) {
     val scopeSession: ScopeSession = ScopeSession()
 
     private val processors: List<FirResolveProcessor> = createAllCompilerResolveProcessors(session, scopeSession)
 
     fun process(files: List<FirFile>) {
         for (processor in processors) {
-            when (processor) {
-                is FirTransformerBasedResolveProcessor -> {
-                    for (file in files) {
-                        processor.processFile(file)
+            phaseMeasurements.measure(PHASE_MEASUREMENT_KIND, processor.javaClass.simpleName) {
+                when (processor) {
+                    is FirTransformerBasedResolveProcessor -> {
+                        for (file in files) {
+                            processor.processFile(file)
+                        }
+                    }
+                    is FirGlobalResolveProcessor -> {
+                        processor.process()
                     }
-                }
-                is FirGlobalResolveProcessor -> {
-                    processor.process()
                 }
             }
         }
     }
+
+    companion object {
+        const val PHASE_MEASUREMENT_KIND = "FIR resolve phase"
+    }
 }
 
 fun createAllCompilerResolveProcessors(
@@ -23,6 +23,7 @@ import com.intellij.openapi.components.ServiceManager
 import com.intellij.openapi.util.Computable
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiJavaModule
+import java.lang.ref.SoftReference
 
 class KotlinBinaryClassCache : Disposable {
     private class RequestCache {
@@ -42,20 +43,48 @@ class KotlinBinaryClassCache : Disposable {
         }
     }
 
+    /**
+     * Results shared between threads, so that a class file requested repeatedly (e.g. by different resolvers
+     * or after being evicted from a thread's [RequestCache]) is not read and parsed again.
+     * Results are softly referenced as they retain the class file content.
+     */
+    private class SharedCacheEntry(val modificationStamp: Long, result: KotlinClassFinder.Result?) {
+        val isNullResult = result == null
+        private val reference = result?.let(::SoftReference)
+
+        val result: KotlinClassFinder.Result? get() = reference?.get()
+    }
+
     private val cache = object : ThreadLocal<RequestCache>() {
         override fun initialValue(): RequestCache {
             return RequestCache()
         }
     }
 
+    private val sharedCache = object : LinkedHashMap<VirtualFile, SharedCacheEntry>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<VirtualFile, SharedCacheEntry>): Boolean =
+            size > MAX_SHARED_CACHE_SIZE
+    }
+
+    private fun getShared(file: VirtualFile): SharedCacheEntry? =
+        synchronized(sharedCache) { sharedCache[file] }
+            ?.takeIf { it.modificationStamp == file.modificationStamp }
+
+    private fun putShared(file: VirtualFile, result: KotlinClassFinder.Result?) {
+        synchronized(sharedCache) { sharedCache[file] = SharedCacheEntry(file.modificationStamp, result) }
+    }
+
     override fun dispose() {
         // This is only relevant for tests. We create a new instance of Application for each test, and so a new instance of this service is
         // also created for each test. However all tests share the same event dispatch thread, which would collect all instances of this
         // thread-local if they're not removed properly. Each instance would transitively retain VFS resulting in OutOfMemoryError
         cache.remove()
+        synchronized(sharedCache) { sharedCache.clear() }
     }
 
     companion object {
+        private const val MAX_SHARED_CACHE_SIZE = 4096
+
         fun getKotlinBinaryClassOrClassFileContent(
             file: VirtualFile, fileContent: ByteArray? = null
         ): KotlinClassFinder.Result? {
@@ -70,11 +99,17 @@ class KotlinBinaryClassCache : Disposable {
                 return requestCache.result
             }
 
+            service.getShared(file)?.let { entry ->
+                val result = entry.result
+                if (result != null || entry.isNullResult) return requestCache.cache(file, result)
+            }
+
             val aClass = ApplicationManager.getApplication().runReadAction(Computable {
                 @Suppress("DEPRECATION")
                 VirtualFileKotlinClass.create(file, fileContent)
             })
 
+            service.putShared(file, aClass)
             return requestCache.cache(file, aClass)
         }
     }
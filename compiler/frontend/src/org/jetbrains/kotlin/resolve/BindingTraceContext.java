@@ -17,11 +17,16 @@
 package org.jetbrains.kotlin.resolve;
 
 import com.google.common.collect.ImmutableMap;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.kotlin.diagnostics.Diagnostic;
+import org.jetbrains.kotlin.psi.Call;
+import org.jetbrains.kotlin.psi.KtDeclaration;
 import org.jetbrains.kotlin.psi.KtExpression;
+import org.jetbrains.kotlin.psi.KtFile;
 import org.jetbrains.kotlin.resolve.diagnostics.BindingContextSuppressCache;
 import org.jetbrains.kotlin.resolve.diagnostics.Diagnostics;
 import org.jetbrains.kotlin.resolve.diagnostics.MutableDiagnosticsWithSuppression;
@@ -31,6 +36,8 @@ import org.jetbrains.kotlin.types.expressions.typeInfoFactory.TypeInfoFactoryKt;
 import org.jetbrains.kotlin.util.slicedMap.*;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 public class BindingTraceContext implements BindingTrace {
     // These flags are used for debugging of "Rewrite at slice..." exceptions
@@ -80,6 +87,24 @@ public class BindingTraceContext implements BindingTrace {
         public void clear() {
             map.clear();
         }
+
+        @Override
+        public void clearExpressionData(@NotNull Collection<? extends KtFile> files) {
+            Set<PsiFile> fileSet = new HashSet<>(files);
+            map.removeKeys(key -> {
+                PsiElement element;
+                if (key instanceof Call) {
+                    element = ((Call) key).getCallElement();
+                }
+                else if (key instanceof KtExpression && !(key instanceof KtDeclaration)) {
+                    element = (PsiElement) key;
+                }
+                else {
+                    return false;
+                }
+                return fileSet.contains(element.getContainingFile());
+            });
+        }
     };
 
     public BindingTraceContext() {
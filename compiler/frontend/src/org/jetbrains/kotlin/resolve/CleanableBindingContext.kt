@@ -5,9 +5,17 @@
 
 package org.jetbrains.kotlin.resolve
 
+import org.jetbrains.kotlin.psi.KtFile
+
 interface CleanableBindingContext : BindingContext {
     /**
      * Removes all recorded data except diagnostics.
      */
     fun clear()
+
+    /**
+     * Removes data recorded for expressions and calls in [files], which is not needed once these files are translated.
+     * Data recorded for declarations and descriptors is kept, because it can be queried while processing other files.
+     */
+    fun clearExpressionData(files: Collection<KtFile>)
 }
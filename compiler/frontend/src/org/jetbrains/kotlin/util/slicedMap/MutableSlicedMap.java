@@ -20,12 +20,19 @@ import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.TestOnly;
 
+import java.util.function.Predicate;
+
 public interface MutableSlicedMap extends SlicedMap {
 
     <K, V> void put(WritableSlice<K, V> slice, K key, V value);
 
     void clear();
 
+    /**
+     * Removes values of all slices for keys matching {@code predicate}.
+     */
+    void removeKeys(@NotNull Predicate<Object> predicate);
+
     @NotNull
     @TestOnly
     <K, V> ImmutableMap<K, V> getSliceContents(@NotNull ReadOnlySlice<K, V> slice);
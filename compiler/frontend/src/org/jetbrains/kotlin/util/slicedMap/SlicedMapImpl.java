@@ -28,6 +28,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.function.Predicate;
 
 public class SlicedMapImpl implements MutableSlicedMap {
 
@@ -86,6 +87,24 @@ public class SlicedMapImpl implements MutableSlicedMap {
         collectiveSliceKeys = null;
     }
 
+    @Override
+    public void removeKeys(@NotNull Predicate<Object> predicate) {
+        if (map == null) return;
+
+        // OpenAddressLinearProbingHashTable doesn't support removal, so the remaining entries are copied into a new table
+        Map<Object, KeyFMap> newMap = new OpenAddressLinearProbingHashTable<>();
+        map.forEach((key, holder) -> {
+            if (!predicate.test(key)) {
+                newMap.put(key, holder);
+            }
+        });
+        map = newMap;
+
+        if (collectiveSliceKeys != null) {
+            collectiveSliceKeys.values().removeIf(predicate);
+        }
+    }
+
     @Override
     public <K, V> V get(ReadOnlySlice<K, V> slice, K key) {
         KeyFMap holder = map != null ? map.get(key) : null;
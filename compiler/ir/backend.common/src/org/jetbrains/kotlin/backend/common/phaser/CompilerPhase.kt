@@ -6,6 +6,8 @@
 package org.jetbrains.kotlin.backend.common.phaser
 
 import org.jetbrains.kotlin.backend.common.CommonBackendContext
+import org.jetbrains.kotlin.config.CommonConfigurationKeys
+import org.jetbrains.kotlin.utils.measure
 import kotlin.system.measureTimeMillis
 
 class PhaserState<Data>(
@@ -87,11 +89,14 @@ class NamedCompilerPhase<in Context : CommonBackendContext, Data>(
         context.inVerbosePhase = this in phaseConfig.verbose
 
         runBefore(phaseConfig, phaserState, context, input)
-        val output = if (phaseConfig.needProfiling) {
-            runAndProfile(phaseConfig, phaserState, context, input)
-        } else {
-            phaserState.downlevel(nlevels) {
-                lower.invoke(phaseConfig, phaserState, context, input)
+        val phaseMeasurements = context.configuration[CommonConfigurationKeys.PHASE_MEASUREMENTS]
+        val output = phaseMeasurements.measure(PHASE_MEASUREMENT_KIND, name) {
+            if (phaseConfig.needProfiling) {
+                runAndProfile(phaseConfig, phaserState, context, input)
+            } else {
+                phaserState.downlevel(nlevels) {
+                    lower.invoke(phaseConfig, phaserState, context, input)
+                }
             }
         }
         runAfter(phaseConfig, phaserState, context, output)
@@ -140,4 +145,8 @@ class NamedCompilerPhase<in Context : CommonBackendContext, Data>(
         listOf(startDepth to this) + lower.getNamedSubphases(startDepth + nlevels)
 
     override fun toString() = "Compiler Phase @$name"
+
+    companion object {
+        const val PHASE_MEASUREMENT_KIND = "IR phase"
+    }
 }
@@ -127,7 +127,19 @@ class JvmIrCodegenFactory(private val phaseConfig: PhaseConfig) : CodegenFactory
         }
         val irProviders = listOf(irLinker)
 
-        val irModuleFragment = psi2ir.generateModuleFragment(psi2irContext, files, irProviders, pluginExtensions, expectDescriptorToSymbol = null)
+        val clearBindingContext = !state.configuration.getBoolean(JVMConfigurationKeys.DO_NOT_CLEAR_BINDING_CONTEXT)
+        val originalBindingContext = state.originalFrontendBindingContext as? CleanableBindingContext
+
+        // Binding context is cleared after psi2ir anyway, so data of already translated files can be released while translating
+        // the rest of the module. Plugins get the binding context after all files are translated, so they may need all of it.
+        val onFilesTranslated: ((List<KtFile>) -> Unit)? =
+            if (clearBindingContext && originalBindingContext != null && pluginExtensions.isEmpty())
+                originalBindingContext::clearExpressionData
+            else null
+
+        val irModuleFragment = psi2ir.generateModuleFragment(
+            psi2irContext, files, irProviders, pluginExtensions, expectDescriptorToSymbol = null, onFilesTranslated
+        )
         irLinker.postProcess()
 
         stubGenerator.unboundSymbolGeneration = true
@@ -135,9 +147,10 @@ class JvmIrCodegenFactory(private val phaseConfig: PhaseConfig) : CodegenFactory
         // We need to compile all files we reference in Klibs
         irModuleFragment.files.addAll(dependencies.flatMap { it.files })
 
-        if (!state.configuration.getBoolean(JVMConfigurationKeys.DO_NOT_CLEAR_BINDING_CONTEXT)) {
-            val originalBindingContext = state.originalFrontendBindingContext as? CleanableBindingContext
-                ?: error("BindingContext should be cleanable in JVM IR to avoid leaking memory: ${state.originalFrontendBindingContext}")
+        if (clearBindingContext) {
+            if (originalBindingContext == null) {
+                error("BindingContext should be cleanable in JVM IR to avoid leaking memory: ${state.originalFrontendBindingContext}")
+            }
             originalBindingContext.clear()
         }
         return JvmIrBackendInput(
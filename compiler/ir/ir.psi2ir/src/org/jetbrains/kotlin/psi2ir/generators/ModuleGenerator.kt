@@ -43,11 +43,30 @@ class ModuleGenerator(
 ) : Generator {
     private val constantValueGenerator = context.constantValueGenerator
 
-    fun generateModuleFragment(ktFiles: Collection<KtFile>): IrModuleFragment =
+    /**
+     * Generates IR for [ktFiles]. If [onFilesTranslated] is not null, files are translated in batches, and it's called
+     * with the files of each batch once their IR is generated, so that frontend data of these files can be released early.
+     */
+    fun generateModuleFragment(
+        ktFiles: Collection<KtFile>,
+        onFilesTranslated: ((List<KtFile>) -> Unit)? = null
+    ): IrModuleFragment =
         IrModuleFragmentImpl(context.moduleDescriptor, context.irBuiltIns).also { irModule ->
             val irDeclarationGenerator = DeclarationGenerator(context)
-            ktFiles.mapTo(irModule.files) { ktFile ->
-                generateSingleFile(irDeclarationGenerator, ktFile)
+            if (onFilesTranslated == null) {
+                ktFiles.mapTo(irModule.files) { ktFile ->
+                    generateSingleFile(irDeclarationGenerator, ktFile)
+                }
+                return@also
+            }
+
+            // Releasing data has a cost proportional to the size of the remaining data, so the number of batches is bounded
+            val batchSize = maxOf((ktFiles.size + MAX_BATCH_COUNT - 1) / MAX_BATCH_COUNT, MIN_BATCH_SIZE)
+            for (batch in ktFiles.chunked(batchSize)) {
+                batch.mapTo(irModule.files) { ktFile ->
+                    generateSingleFile(irDeclarationGenerator, ktFile)
+                }
+                onFilesTranslated(batch)
             }
         }
 
@@ -110,4 +129,9 @@ class ModuleGenerator(
         context.sourceManager.putFileEntry(irFile, fileEntry)
         return irFile
     }
+
+    companion object {
+        private const val MAX_BATCH_COUNT = 8
+        private const val MIN_BATCH_SIZE = 16
+    }
 }
@@ -14,7 +14,7 @@ abstract class IrFunctionAccessExpression(
     typeArgumentsCount: Int,
     valueArgumentsCount: Int,
 ) : IrMemberAccessExpression<IrFunctionSymbol>(typeArgumentsCount) {
-    private val argumentsByParameterIndex: Array<IrExpression?> = arrayOfNulls(valueArgumentsCount)
+    private val argumentsByParameterIndex: Array<IrExpression?> = valueArgumentsArray(valueArgumentsCount)
 
     final override val valueArgumentsCount: Int
         get() = argumentsByParameterIndex.size
@@ -33,7 +33,8 @@ abstract class IrMemberAccessExpression<S : IrSymbol>(typeArgumentsCount: Int) :
     abstract fun putValueArgument(index: Int, valueArgument: IrExpression?)
     abstract fun removeValueArgument(index: Int)
 
-    private val typeArgumentsByIndex = arrayOfNulls<IrType>(typeArgumentsCount)
+    private val typeArgumentsByIndex: Array<IrType?> =
+        if (typeArgumentsCount == 0) EMPTY_TYPE_ARGUMENTS else arrayOfNulls(typeArgumentsCount)
 
     val typeArgumentsCount: Int get() = typeArgumentsByIndex.size
 
@@ -62,6 +63,13 @@ abstract class IrMemberAccessExpression<S : IrSymbol>(typeArgumentsCount: Int) :
     }
 }
 
+// Most calls have no type arguments and many have no value arguments, so empty argument arrays are shared between them
+private val EMPTY_TYPE_ARGUMENTS = arrayOf<IrType?>()
+private val EMPTY_VALUE_ARGUMENTS = arrayOf<IrExpression?>()
+
+internal fun valueArgumentsArray(valueArgumentsCount: Int): Array<IrExpression?> =
+    if (valueArgumentsCount == 0) EMPTY_VALUE_ARGUMENTS else arrayOfNulls(valueArgumentsCount)
+
 internal fun IrMemberAccessExpression<*>.throwNoSuchArgumentSlotException(kind: String, index: Int, total: Int): Nothing {
     throw AssertionError(
         "No such $kind argument slot in ${this::class.java.simpleName}: $index (total=$total)" +
@@ -20,6 +20,7 @@ import org.jetbrains.kotlin.ir.ObsoleteDescriptorBasedAPI
 import org.jetbrains.kotlin.ir.expressions.IrExpression
 import org.jetbrains.kotlin.ir.expressions.IrFunctionReference
 import org.jetbrains.kotlin.ir.expressions.IrStatementOrigin
+import org.jetbrains.kotlin.ir.expressions.valueArgumentsArray
 import org.jetbrains.kotlin.ir.symbols.IrFunctionSymbol
 import org.jetbrains.kotlin.ir.types.IrType
 import org.jetbrains.kotlin.ir.visitors.IrElementTransformer
@@ -39,7 +40,7 @@ class IrFunctionReferenceImpl(
     override val referencedName: Name
         get() = symbol.owner.name
 
-    private val argumentsByParameterIndex: Array<IrExpression?> = arrayOfNulls(valueArgumentsCount)
+    private val argumentsByParameterIndex: Array<IrExpression?> = valueArgumentsArray(valueArgumentsCount)
 
     override fun getValueArgument(index: Int): IrExpression? {
         if (index >= valueArgumentsCount) {
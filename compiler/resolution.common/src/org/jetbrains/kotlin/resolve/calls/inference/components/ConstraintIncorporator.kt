@@ -93,8 +93,12 @@ class ConstraintIncorporator(
     ) {
         val freshTypeConstructor = typeVariable.freshTypeConstructor()
         for (typeVariableWithConstraint in this@insideOtherConstraint.allTypeVariablesWithConstraints) {
-            val constraintsWhichConstraintMyVariable = typeVariableWithConstraint.constraints.filter {
-                it.type.contains { it.typeConstructor() == freshTypeConstructor }
+            val constraintsWhichConstraintMyVariable = if (typeVariableWithConstraint is MutableVariableWithConstraints) {
+                typeVariableWithConstraint.getConstraintsContainingTypeVariable(freshTypeConstructor)
+            } else {
+                typeVariableWithConstraint.constraints.filter {
+                    it.type.contains { it.typeConstructor() == freshTypeConstructor }
+                }
             }
             constraintsWhichConstraintMyVariable.forEach {
                 generateNewConstraint(typeVariableWithConstraint.typeVariable, it, typeVariable, constraint)
@@ -13,6 +13,7 @@ import org.jetbrains.kotlin.resolve.calls.inference.model.ConstraintKind.*
 import org.jetbrains.kotlin.types.AbstractTypeApproximator
 import org.jetbrains.kotlin.types.AbstractTypeChecker
 import org.jetbrains.kotlin.types.AbstractTypeCheckerContext
+import org.jetbrains.kotlin.types.ClassSupertypesCache
 import org.jetbrains.kotlin.types.TypeApproximatorConfiguration
 import org.jetbrains.kotlin.types.model.*
 import org.jetbrains.kotlin.utils.SmartList
@@ -25,6 +26,8 @@ class ConstraintInjector(
 ) {
     private val ALLOWED_DEPTH_DELTA_FOR_INCORPORATION = 1
 
+    private val supertypesCache: ClassSupertypesCache? = ClassSupertypesCache.createIfEnabled()
+
     interface Context : TypeSystemInferenceExtensionContext {
         val allTypeVariables: Map<TypeConstructorMarker, TypeVariableMarker>
 
@@ -194,6 +197,9 @@ class ConstraintInjector(
 
         val baseContext: AbstractTypeCheckerContext = newBaseTypeCheckerContext(isErrorTypeEqualsToAnything, isStubTypeEqualsToAnything)
 
+        override val classSupertypesCache: ClassSupertypesCache?
+            get() = supertypesCache
+
         override fun substitutionSupertypePolicy(type: SimpleTypeMarker): SupertypesPolicy {
             return baseContext.substitutionSupertypePolicy(type)
         }
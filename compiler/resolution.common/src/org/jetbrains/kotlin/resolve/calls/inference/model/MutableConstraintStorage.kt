@@ -9,6 +9,7 @@ import org.jetbrains.kotlin.resolve.calls.inference.components.ConstraintSystemU
 import org.jetbrains.kotlin.resolve.calls.tower.isSuccess
 import org.jetbrains.kotlin.types.model.*
 import org.jetbrains.kotlin.utils.SmartList
+import org.jetbrains.kotlin.utils.SmartSet
 import org.jetbrains.kotlin.utils.addToStdlib.trimToSize
 
 private typealias Context = TypeSystemInferenceExtensionContext
@@ -31,6 +32,67 @@ class MutableVariableWithConstraints private constructor(
             return simplifiedConstraints!!
         }
 
+    /*
+     * Indices over `constraints`, they are built lazily and dropped together with `simplifiedConstraints`.
+     * Constraints inside each bucket keep the order of `constraints`, so lookups behave exactly as a linear scan.
+     */
+    private var constraintsByTypeHashCode: MutableMap<Int, SmartList<Constraint>>? = null
+    private var constraintsByMentionedTypeVariable: MutableMap<TypeConstructorMarker, SmartList<Constraint>>? = null
+
+    // returns constraints whose type contains the given type variable, the result is a snapshot
+    fun getConstraintsContainingTypeVariable(typeVariableConstructor: TypeConstructorMarker): List<Constraint> {
+        val currentConstraints = constraints
+        if (currentConstraints.size < INDEX_THRESHOLD) {
+            return with(context) {
+                currentConstraints.filter { constraint -> constraint.type.contains { it.typeConstructor() == typeVariableConstructor } }
+            }
+        }
+
+        val index = constraintsByMentionedTypeVariable ?: HashMap<TypeConstructorMarker, SmartList<Constraint>>().also { index ->
+            currentConstraints.forEach { index.addByMentionedTypeVariables(it) }
+            constraintsByMentionedTypeVariable = index
+        }
+        return index[typeVariableConstructor]?.let { SmartList(it) } ?: emptyList()
+    }
+
+    private fun constraintsWithTypeHashCode(typeHashCode: Int): List<Constraint> {
+        val currentConstraints = constraints
+        if (currentConstraints.size < INDEX_THRESHOLD) return currentConstraints
+
+        val index = constraintsByTypeHashCode ?: HashMap<Int, SmartList<Constraint>>().also { index ->
+            currentConstraints.forEach { index.getOrPut(it.typeHashCode) { SmartList() }.add(it) }
+            constraintsByTypeHashCode = index
+        }
+        return index[typeHashCode] ?: emptyList()
+    }
+
+    private fun MutableMap<TypeConstructorMarker, SmartList<Constraint>>.addByMentionedTypeVariables(constraint: Constraint) {
+        val mentionedTypeVariables = SmartSet.create<TypeConstructorMarker>()
+        with(context) {
+            constraint.type.contains {
+                val typeConstructor = it.typeConstructor()
+                if (typeConstructor.isTypeVariable()) {
+                    mentionedTypeVariables.add(typeConstructor)
+                }
+                false
+            }
+        }
+        for (typeVariableConstructor in mentionedTypeVariables) {
+            getOrPut(typeVariableConstructor) { SmartList() }.add(constraint)
+        }
+    }
+
+    private fun appendToIndices(constraint: Constraint) {
+        constraintsByTypeHashCode?.getOrPut(constraint.typeHashCode) { SmartList() }?.add(constraint)
+        constraintsByMentionedTypeVariable?.addByMentionedTypeVariables(constraint)
+    }
+
+    private fun resetSimplifiedConstraints() {
+        simplifiedConstraints = null
+        constraintsByTypeHashCode = null
+        constraintsByMentionedTypeVariable = null
+    }
+
     // see @OnlyInputTypes annotation
     fun getProjectedInputCallTypes(utilContext: ConstraintSystemUtilContext): Collection<KotlinTypeMarker> {
         return with(utilContext) {
@@ -52,7 +114,8 @@ class MutableVariableWithConstraints private constructor(
     fun addConstraint(constraint: Constraint): Pair<Constraint, Boolean> {
         val isLowerAndFlexibleTypeWithDefNotNullLowerBound = constraint.isLowerAndFlexibleTypeWithDefNotNullLowerBound()
 
-        for (previousConstraint in constraints) {
+        // both checks below look only at constraints with the same type hash code
+        for (previousConstraint in constraintsWithTypeHashCode(constraint.typeHashCode)) {
             if (previousConstraint.typeHashCode == constraint.typeHashCode
                 && previousConstraint.type == constraint.type
                 && previousConstraint.isNullabilityConstraint == constraint.isNullabilityConstraint
@@ -78,7 +141,7 @@ class MutableVariableWithConstraints private constructor(
                         )
                     } else constraint
                     mutableConstraints.add(actualConstraint)
-                    simplifiedConstraints = null
+                    resetSimplifiedConstraints()
                     return actualConstraint to true
                 }
             }
@@ -96,7 +159,9 @@ class MutableVariableWithConstraints private constructor(
         }
 
         if (simplifiedConstraints != null && isLowerAndFlexibleTypeWithDefNotNullLowerBound) {
-            simplifiedConstraints = null
+            resetSimplifiedConstraints()
+        } else if (simplifiedConstraints != null) {
+            appendToIndices(constraint)
         }
 
         return constraint to true
@@ -109,6 +174,8 @@ class MutableVariableWithConstraints private constructor(
         if (simplifiedConstraints !== mutableConstraints) {
             simplifiedConstraints = null
         }
+        constraintsByTypeHashCode = null
+        constraintsByMentionedTypeVariable = null
     }
 
     // This method should be used only when constraint system has state COMPLETION
@@ -117,6 +184,8 @@ class MutableVariableWithConstraints private constructor(
         if (simplifiedConstraints !== mutableConstraints) {
             simplifiedConstraints = null
         }
+        constraintsByTypeHashCode = null
+        constraintsByMentionedTypeVariable = null
     }
 
     private fun newConstraintIsUseless(old: Constraint, new: Constraint): Boolean {
@@ -196,6 +265,10 @@ class MutableVariableWithConstraints private constructor(
     override fun toString(): String {
         return "Constraints for $typeVariable"
     }
+
+    companion object {
+        private const val INDEX_THRESHOLD = 16
+    }
 }
 
 
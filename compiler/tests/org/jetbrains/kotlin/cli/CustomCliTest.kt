@@ -39,6 +39,26 @@ class CustomCliTest : TestCaseWithTmpdir() {
         compileAndCheckMainClass(listOf(main1Kt, main2Kt), expectedMainClass = null)
     }
 
+    fun testPerformanceReportInJson() {
+        val mainKt = tmpdir.resolve("main.kt").apply {
+            writeText(EMPTY_MAIN_FUN)
+        }
+        val perfFile = tmpdir.resolve("perf.json")
+        val args = listOf(
+            "-Xuse-ir", "-d", tmpdir.resolve("out").absolutePath, "-Xdump-perf=${perfFile.absolutePath}", mainKt.absolutePath
+        )
+        CompilerTestUtil.executeCompilerAssertSuccessful(K2JVMCompiler(), args)
+
+        val report = perfFile.readText()
+        Assert.assertTrue(report, report.startsWith("{") && report.trimEnd().endsWith("}"))
+        for (expected in listOf(
+            "\"stages\": [", "\"phases\": [", "\"kind\": \"IR phase\", \"name\": \"IrLowering\"",
+            "\"kind\": \"Codegen stage\", \"name\": \"generateModule\"", "\"maxUsedHeapBytesAfterRun\": ", "\"gc\": ["
+        )) {
+            Assert.assertTrue("$expected is expected in the report:\n$report", expected in report)
+        }
+    }
+
     private fun compileAndCheckMainClass(sourceFiles: List<File>, expectedMainClass: String?) {
         val jarFile = tmpdir.resolve("output.jar")
         val args = listOf("-include-runtime", "-d", jarFile.absolutePath) + sourceFiles.map { it.absolutePath }
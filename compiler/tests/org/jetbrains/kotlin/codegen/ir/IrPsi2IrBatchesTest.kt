@@ -0,0 +1,99 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen.ir
+
+import org.jetbrains.kotlin.codegen.CodegenTestCase
+import org.jetbrains.kotlin.codegen.CodegenTestFiles
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.TargetBackend
+import org.jetbrains.kotlin.test.util.KtTestUtil
+
+// With the binding context cleared after psi2ir, JVM IR translates files in batches and releases frontend data of each
+// translated batch. Files here refer to declarations of files from other batches, in both directions.
+class IrPsi2IrBatchesTest : CodegenTestCase() {
+    override val backend: TargetBackend
+        get() = TargetBackend.JVM_IR
+
+    fun testCrossFileReferences() {
+        createEnvironmentWithMockJdkAndIdeaAnnotations(ConfigurationKind.NO_KOTLIN_REFLECT)
+
+        val ktFiles = (0 until FILE_COUNT).map { i ->
+            KtTestUtil.createFile("file$i.kt", fileText(i), myEnvironment!!.project)
+        } + KtTestUtil.createFile("box.kt", boxText(), myEnvironment!!.project)
+        myFiles = CodegenTestFiles.create(ktFiles)
+
+        val boxMethod = generateClass("test.BoxKt").getDeclaredMethod("box")
+        assertEquals("OK", boxMethod.invoke(null))
+    }
+
+    private fun fileText(i: Int): String {
+        val targets = listOf((i + FILE_COUNT - 1) % FILE_COUNT, (i + 1) % FILE_COUNT, (i + FILE_COUNT / 2) % FILE_COUNT)
+        return """
+            |package test
+            |
+            |const val CONST_$i = $i
+            |val inferred$i = listOf(CONST_$i).map { it * 2 }
+            |
+            |inline fun <reified T> inline$i(value: Any?, block: (Int) -> Int = { it }): Int =
+            |    if (value is T) block(CONST_$i) else -1
+            |
+            |sealed class Sealed$i {
+            |    object A : Sealed$i()
+            |    class B(val x: Int) : Sealed$i()
+            |}
+            |
+            |data class Data$i(val a: Int, val b: String = "b" + CONST_$i)
+            |
+            |interface Iface$i {
+            |    fun value(): Int = CONST_$i
+            |}
+            |
+            |class Impl$i(delegate: Iface$i) : Iface$i by delegate
+            |
+            |val Int.ext$i: Int
+            |    get() = this + CONST_$i
+            |
+            |fun check$i(): String? {
+            |${targets.joinToString("\n") { checkText(it) }}
+            |    return null
+            |}
+            """.trimMargin()
+    }
+
+    private fun checkText(j: Int): String =
+        """
+        |    run {
+        |        val (a, b) = Data$j(1)
+        |        if (a != 1 || b != "b$j") return "data $j"
+        |        val sealed: Sealed$j = Sealed$j.B(CONST_$j)
+        |        val x = when (sealed) {
+        |            Sealed$j.A -> -1
+        |            is Sealed$j.B -> sealed.x
+        |        }
+        |        if (x != $j) return "sealed $j"
+        |        if (inline$j<String>("") { it + 1 } != ${j + 1}) return "inline $j"
+        |        if (inline$j<String>(1) != -1) return "reified $j"
+        |        if (inferred$j.single() != ${j * 2}) return "inferred $j"
+        |        if (Impl$j(object : Iface$j {}).value() != $j) return "delegation $j"
+        |        if (1.ext$j != ${j + 1}) return "extension $j"
+        |    }
+        """.trimMargin()
+
+    private fun boxText(): String =
+        """
+        |package test
+        |
+        |fun box(): String {
+        |    val failure = ${(0 until FILE_COUNT).joinToString(" ?: ") { "check$it()" }}
+        |    return if (failure == null) "OK" else "Fail: ${'$'}failure"
+        |}
+        """.trimMargin()
+
+    companion object {
+        // Enough for several batches of psi2ir, see ModuleGenerator
+        private const val FILE_COUNT = 40
+    }
+}
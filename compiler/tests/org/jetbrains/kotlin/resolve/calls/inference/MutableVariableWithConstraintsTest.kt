@@ -0,0 +1,96 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.resolve.calls.inference
+
+import junit.framework.TestCase
+import org.jetbrains.kotlin.builtins.DefaultBuiltIns
+import org.jetbrains.kotlin.resolve.calls.components.ClassicTypeSystemContextForCS
+import org.jetbrains.kotlin.resolve.calls.inference.model.*
+import org.jetbrains.kotlin.types.KotlinType
+import org.jetbrains.kotlin.types.Variance
+
+// Variables with many constraints use indices instead of linear scans, the results should stay the same
+class MutableVariableWithConstraintsTest : TestCase() {
+    private val builtIns = DefaultBuiltIns.Instance
+    private val context = ClassicTypeSystemContextForCS(builtIns)
+    private val otherVariables = (0 until 8).map { TypeVariableForLambdaReturnType(builtIns, "R$it") }
+
+    // Pairwise different types of growing depth, two of each three mention one of `otherVariables`
+    private fun constraintType(i: Int): KotlinType {
+        var type: KotlinType = if (i % 3 == 0) builtIns.intType else otherVariables[i % otherVariables.size].defaultType
+        repeat(i / 3) { type = builtIns.getArrayType(Variance.INVARIANT, type) }
+        return type
+    }
+
+    private fun MutableVariableWithConstraints.add(kind: ConstraintKind, type: KotlinType): Pair<Constraint, Boolean> {
+        val initialConstraint = InitialConstraint(type, (typeVariable as NewTypeVariable).defaultType, kind, SimpleConstraintSystemConstraintPosition)
+        val position = IncorporationConstraintPosition(SimpleConstraintSystemConstraintPosition, initialConstraint)
+        return addConstraint(Constraint(kind, type, position, derivedFrom = emptySet(), isNullabilityConstraint = false))
+    }
+
+    private fun MutableVariableWithConstraints.assertLookupsMatchLinearScan() {
+        for (otherVariable in otherVariables) {
+            val expected = with(context) {
+                constraints.filter { constraint -> constraint.type.contains { it.typeConstructor() == otherVariable.freshTypeConstructor } }
+            }
+            assertEquals(expected, getConstraintsContainingTypeVariable(otherVariable.freshTypeConstructor))
+        }
+    }
+
+    fun testDeduplication() {
+        val variable = MutableVariableWithConstraints(context, TypeVariableForLambdaReturnType(builtIns, "T"))
+        val count = 100
+
+        val lowerConstraints = (0 until count).map { i ->
+            val (constraint, isNew) = variable.add(ConstraintKind.LOWER, constraintType(i))
+            assertTrue(isNew)
+            assertEquals(ConstraintKind.LOWER, constraint.kind)
+            constraint
+        }
+        assertEquals(lowerConstraints, variable.constraints)
+
+        for (i in 0 until count) {
+            val (constraint, isNew) = variable.add(ConstraintKind.LOWER, constraintType(i))
+            assertFalse(isNew)
+            assertSame(lowerConstraints[i], constraint)
+        }
+        assertEquals(count, variable.constraints.size)
+
+        // an upper constraint with the type of a lower one turns into an equality
+        for (i in 0 until count step 7) {
+            val (constraint, isNew) = variable.add(ConstraintKind.UPPER, constraintType(i))
+            assertTrue(isNew)
+            assertEquals(ConstraintKind.EQUALITY, constraint.kind)
+            assertEquals(constraintType(i), constraint.type)
+
+            val (existing, isNewAgain) = variable.add(ConstraintKind.UPPER, constraintType(i))
+            assertFalse(isNewAgain)
+            assertEquals(ConstraintKind.EQUALITY, existing.kind)
+        }
+    }
+
+    fun testConstraintsContainingTypeVariable() {
+        val variable = MutableVariableWithConstraints(context, TypeVariableForLambdaReturnType(builtIns, "T"))
+
+        for (i in 0 until 50) {
+            variable.add(ConstraintKind.LOWER, constraintType(i))
+        }
+        variable.assertLookupsMatchLinearScan()
+
+        // constraints added after the indices were built
+        for (i in 50 until 100) {
+            variable.add(if (i % 2 == 0) ConstraintKind.LOWER else ConstraintKind.UPPER, constraintType(i))
+            if (i % 10 == 0) variable.assertLookupsMatchLinearScan()
+        }
+        variable.assertLookupsMatchLinearScan()
+
+        // equalities make the simplified constraints and their indices to be recomputed
+        for (i in 0 until 100 step 11) {
+            variable.add(ConstraintKind.UPPER, constraintType(i))
+        }
+        variable.assertLookupsMatchLinearScan()
+    }
+}
@@ -72,4 +72,15 @@ public class BitEncodingTest extends KtUsefulTestCase {
             }
         }
     }
+
+    public void testDecodeDoesNotModifyInput() throws Exception {
+        byte[] a = new byte[70000];
+        new Random(42).nextBytes(a);
+
+        String[] b = encodeBytes(a);
+        String[] copy = b.clone();
+
+        assertArrayEquals(a, decodeBytes(b));
+        assertArrayEquals(copy, b);
+    }
 }
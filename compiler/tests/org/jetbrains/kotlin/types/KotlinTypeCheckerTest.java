@@ -44,7 +44,9 @@ import org.jetbrains.kotlin.test.KotlinTestUtils;
 import org.jetbrains.kotlin.test.KotlinTestWithEnvironment;
 import org.jetbrains.kotlin.tests.di.ContainerForTests;
 import org.jetbrains.kotlin.tests.di.InjectionKt;
+import org.jetbrains.kotlin.types.checker.ClassicTypeCheckerContext;
 import org.jetbrains.kotlin.types.checker.KotlinTypeChecker;
+import org.jetbrains.kotlin.types.checker.KotlinTypeRefiner;
 import org.jetbrains.kotlin.types.expressions.ExpressionTypingServices;
 
 import java.io.File;
@@ -56,6 +58,7 @@ public class KotlinTypeCheckerTest extends KotlinTestWithEnvironment {
     private LexicalScope scopeWithImports;
     private TypeResolver typeResolver;
     private ExpressionTypingServices expressionTypingServices;
+    private ClassSupertypesCache classSupertypesCache;
 
     @Override
     protected KotlinCoreEnvironment createEnvironment() {
@@ -75,11 +78,13 @@ public class KotlinTypeCheckerTest extends KotlinTestWithEnvironment {
         expressionTypingServices = container.getExpressionTypingServices();
 
         scopeWithImports = getDeclarationsScope();
+        classSupertypesCache = new ClassSupertypesCache();
     }
 
     @Override
     protected void tearDown() throws Exception {
         scopeWithImports = null;
+        classSupertypesCache = null;
 
         expressionTypingServices = null;
         typeResolver = null;
@@ -527,6 +532,13 @@ public class KotlinTypeCheckerTest extends KotlinTestWithEnvironment {
                 typeNode2);
         String modifier = expected ? "not " : "";
         assertEquals(typeNode1 + " is " + modifier + "a subtype of " + typeNode2, expected, result);
+
+        // The same check with supertype closures shared between all checks of the test
+        AbstractTypeCheckerContext contextWithCache = new ClassicTypeCheckerContext(
+                true, true, true, KotlinTypeRefiner.Default.INSTANCE, classSupertypesCache);
+        boolean resultWithCache = AbstractTypeChecker.INSTANCE.isSubtypeOf(
+                contextWithCache, typeNode1.unwrap(), typeNode2.unwrap(), false);
+        assertEquals(typeNode1 + " is " + modifier + "a subtype of " + typeNode2 + " with cached supertypes", expected, resultWithCache);
     }
 
     private void assertType(String expression, KotlinType expectedType) {
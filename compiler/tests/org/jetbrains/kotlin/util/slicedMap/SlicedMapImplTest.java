@@ -0,0 +1,87 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.util.slicedMap;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SlicedMapImplTest extends TestCase {
+    private static final int KEY_COUNT = 100;
+
+    public void testRemoveKeys() {
+        WritableSlice<String, Integer> LENGTH = Slices.<String, Integer>sliceBuilder().setDebugName("LENGTH").build();
+        WritableSlice<String, String> UPPER_CASE = Slices.<String, String>sliceBuilder().setDebugName("UPPER_CASE").build();
+
+        SlicedMapImpl map = new SlicedMapImpl(false);
+        map.removeKeys(key -> true);
+
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String key = key(i);
+            map.put(LENGTH, key, key.length());
+            map.put(UPPER_CASE, key, key.toUpperCase());
+        }
+
+        map.removeKeys(key -> isRemoved((String) key));
+
+        int remainingCount = 0;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String key = key(i);
+            if (isRemoved(key)) {
+                assertNull(map.get(LENGTH, key));
+                assertNull(map.get(UPPER_CASE, key));
+            }
+            else {
+                assertEquals(key.length(), (int) map.get(LENGTH, key));
+                assertEquals(key.toUpperCase(), map.get(UPPER_CASE, key));
+                remainingCount++;
+            }
+        }
+        assertEquals(remainingCount, map.getSliceContents(LENGTH).size());
+
+        // removed keys can be recorded again
+        map.put(LENGTH, key(0), 42);
+        assertEquals(42, (int) map.get(LENGTH, key(0)));
+    }
+
+    public void testRemoveKeysOfCollectiveSlice() {
+        WritableSlice<String, Boolean> COLLECTED = Slices.createCollectiveSetSlice();
+        WritableSlice<String, Boolean> NOT_COLLECTED = Slices.createSimpleSetSlice();
+
+        SlicedMapImpl map = new SlicedMapImpl(false);
+        List<String> expectedKeys = new ArrayList<>();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String key = key(i);
+            map.put(COLLECTED, key, true);
+            map.put(NOT_COLLECTED, key, true);
+            if (!isRemoved(key)) {
+                expectedKeys.add(key);
+            }
+        }
+
+        map.removeKeys(key -> isRemoved((String) key));
+
+        assertEquals(expectedKeys, new ArrayList<>(map.getKeys(COLLECTED)));
+        for (int i = 0; i < KEY_COUNT; i++) {
+            String key = key(i);
+            assertEquals(!isRemoved(key), (boolean) map.get(COLLECTED, key));
+            assertEquals(!isRemoved(key), (boolean) map.get(NOT_COLLECTED, key));
+        }
+
+        map.removeKeys(key -> true);
+        assertTrue(map.getKeys(COLLECTED).isEmpty());
+        assertTrue(map.getSliceContents(NOT_COLLECTED).isEmpty());
+    }
+
+    private static String key(int i) {
+        return "key" + i;
+    }
+
+    private static boolean isRemoved(String key) {
+        return Integer.parseInt(key.substring("key".length())) % 3 == 0;
+    }
+}
@@ -6,6 +6,7 @@
 package org.jetbrains.kotlin.library.impl
 
 import org.jetbrains.kotlin.library.SerializedDeclaration
+import java.io.BufferedOutputStream
 import java.io.ByteArrayOutputStream
 import java.io.DataOutput
 import java.io.DataOutputStream
@@ -16,13 +17,14 @@ abstract class IrFileWriter {
     protected abstract fun writeData(dataOutput: DataOutput)
 
     fun writeIntoFile(path: String) {
-        val fileStream = FileOutputStream(path)
-        val dataOutputStream = DataOutputStream(fileStream)
-
-        writeData(dataOutputStream)
+        // Index records are written int by int, so the stream must be buffered
+        DataOutputStream(BufferedOutputStream(FileOutputStream(path), BUFFER_SIZE)).use {
+            writeData(it)
+        }
+    }
 
-        dataOutputStream.close()
-        fileStream.close()
+    private companion object {
+        const val BUFFER_SIZE = 64 * 1024
     }
 }
 
@@ -30,8 +32,13 @@ abstract class IrMemoryWriter {
 
     protected abstract fun writeData(dataOutput: DataOutput)
 
+    /**
+     * Expected size of the data written by [writeData], used to allocate the buffer at once.
+     */
+    protected open fun dataSize(): Int = 32
+
     fun writeIntoMemory(): ByteArray {
-        val memoryStream = ByteArrayOutputStream()
+        val memoryStream = ByteArrayOutputStream(dataSize())
         val dataOutputStream = DataOutputStream(memoryStream)
 
         writeData(dataOutputStream)
@@ -54,6 +61,8 @@ class IrArrayWriter(private val data: List<ByteArray>) : IrFileWriter() {
 }
 
 class IrMemoryArrayWriter(private val data: List<ByteArray>) : IrMemoryWriter() {
+    override fun dataSize(): Int = Int.SIZE_BYTES * (data.size + 1) + data.sumBy { it.size }
+
     override fun writeData(dataOutput: DataOutput) {
         dataOutput.writeInt(data.size)
 
@@ -118,6 +127,8 @@ class IrMemoryDeclarationWriter(private val declarations: List<SerializedDeclara
     private val SINGLE_INDEX_RECORD_SIZE = 3 * Int.SIZE_BYTES
     private val INDEX_HEADER_SIZE = Int.SIZE_BYTES
 
+    override fun dataSize(): Int = INDEX_HEADER_SIZE + SINGLE_INDEX_RECORD_SIZE * declarations.size + declarations.sumBy { it.size }
+
     override fun writeData(dataOutput: DataOutput) {
         dataOutput.writeInt(declarations.size)
 
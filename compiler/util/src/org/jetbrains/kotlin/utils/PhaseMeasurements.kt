@@ -0,0 +1,89 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.utils
+
+import java.lang.management.ManagementFactory
+
+/**
+ * Time, allocation and heap statistics of individual compiler phases (FIR resolve phases, IR lowerings, codegen stages)
+ * of one compilation.
+ *
+ * An instance belongs to the performance manager of a compilation and reaches compiler phases through the compiler
+ * configuration, so compilations running in the same daemon don't share statistics. Nothing is recorded unless [isEnabled]
+ * is set, which is done while the compiler is asked to report performance.
+ * Times and allocations of a phase include its subphases. Allocations are counted for the thread which runs the phase.
+ */
+class PhaseMeasurements {
+    class Phase(val kind: String, val name: String) {
+        var count: Int = 0
+            internal set
+        var timeNanos: Long = 0
+            internal set
+        var allocatedBytes: Long = 0
+            internal set
+
+        /**
+         * Maximum of heap usage sampled when a run of the phase finished. It's not the peak usage during the phase:
+         * garbage collected in the middle of a run is not seen here.
+         */
+        var maxUsedHeapBytesAfterRun: Long = 0
+            internal set
+    }
+
+    @Volatile
+    var isEnabled: Boolean = false
+
+    private val phases = LinkedHashMap<Pair<String, String>, Phase>()
+
+    @PublishedApi
+    internal fun currentThreadAllocatedBytes(): Long =
+        threadBean?.getThreadAllocatedBytes(Thread.currentThread().id) ?: 0
+
+    @PublishedApi
+    internal fun record(kind: String, name: String, timeNanos: Long, allocatedBytes: Long) {
+        val usedHeapBytes = memoryBean.heapMemoryUsage.used
+        synchronized(phases) {
+            val phase = phases.getOrPut(kind to name) { Phase(kind, name) }
+            phase.count++
+            phase.timeNanos += timeNanos
+            phase.allocatedBytes += allocatedBytes
+            phase.maxUsedHeapBytesAfterRun = maxOf(phase.maxUsedHeapBytesAfterRun, usedHeapBytes)
+        }
+    }
+
+    /**
+     * Returns recorded phases in order of their first run.
+     */
+    fun getPhases(): List<Phase> = synchronized(phases) { phases.values.toList() }
+
+    private companion object {
+        private val threadBean: com.sun.management.ThreadMXBean? by lazy {
+            try {
+                (ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean)?.takeIf { it.isThreadAllocatedMemorySupported }
+            } catch (e: LinkageError) {
+                // Not a HotSpot-compatible JVM
+                null
+            }
+        }
+
+        private val memoryBean by lazy { ManagementFactory.getMemoryMXBean() }
+    }
+}
+
+/**
+ * Runs [block] as the phase [name] of [kind], recording its statistics if measurements are present and enabled.
+ */
+inline fun <T> PhaseMeasurements?.measure(kind: String, name: String, block: () -> T): T {
+    if (this == null || !isEnabled) return block()
+
+    val startNanos = System.nanoTime()
+    val startAllocatedBytes = currentThreadAllocatedBytes()
+    try {
+        return block()
+    } finally {
+        record(kind, name, System.nanoTime() - startNanos, currentThreadAllocatedBytes() - startAllocatedBytes)
+    }
+}
@@ -32,6 +32,13 @@ abstract class AbstractTypeCheckerContext : TypeSystemContext {
 
     abstract val isStubTypeEqualsToAnything: Boolean
 
+    /**
+     * Shared cache of class supertype closures, see [ClassSupertypesCache]. Contexts which return non-null here must compare
+     * class type constructors by `equals` in [areEqualTypeConstructors].
+     */
+    open val classSupertypesCache: ClassSupertypesCache?
+        get() = null
+
     protected var argumentsDepth = 0
 
 
@@ -166,6 +173,7 @@ object AbstractTypeChecker {
         superConstructor: TypeConstructorMarker
     ): Boolean {
         if (typeConstructor == superConstructor) return true
+        context.classSupertypesCache?.isSubtypeOfClass(context, typeConstructor, superConstructor)?.let { return it }
         with(context) {
             for (superType in typeConstructor.supertypes()) {
                 if (isSubtypeOfClass(context, superType.typeConstructor(), superConstructor)) {
@@ -453,6 +461,8 @@ object AbstractTypeChecker {
                 emptyList()
         }
 
+        if (isDefinitelyNotSupertypeConstructor(subType.typeConstructor(), superConstructor)) return emptyList()
+
         val result: MutableList<SimpleTypeMarker> = SmartList()
 
         anySupertype(subType, { false }) {
@@ -476,6 +486,15 @@ object AbstractTypeChecker {
         return result
     }
 
+    private fun AbstractTypeCheckerContext.isDefinitelyNotSupertypeConstructor(
+        subConstructor: TypeConstructorMarker,
+        superConstructor: TypeConstructorMarker
+    ): Boolean {
+        val cache = classSupertypesCache ?: return false
+        if (!superConstructor.isClassTypeConstructor()) return false
+        return cache.isSubtypeOfClass(this, subConstructor, superConstructor) == false
+    }
+
     private fun AbstractTypeCheckerContext.collectAndFilter(classType: SimpleTypeMarker, constructor: TypeConstructorMarker) =
         selectOnlyPureKotlinSupertypes(collectAllSupertypesWithGivenTypeConstructor(classType, constructor))
 
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.types
+
+import org.jetbrains.kotlin.types.model.TypeConstructorMarker
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Memoizes supertype closures of class type constructors, so that repeated subtyping questions about the same classes
+ * don't walk the whole hierarchy again.
+ *
+ * Entries are keyed by identity of the type constructor and are only created for class type constructors: their supertypes
+ * don't depend on type arguments and don't change during the lifetime of a session. Captured types, type variables,
+ * intersection, integer literal and stub types are never cached, and flexible types are represented by the constructor of
+ * their lower bound, which is what supertype traversal in [AbstractTypeChecker] uses anyway.
+ *
+ * Only constructor-level facts are stored. Results of full subtyping checks are not cached, since during inference they
+ * can have side effects on the constraint system.
+ *
+ * The cache is meant to be owned by a per-module component and is used only by contexts which compare class type
+ * constructors by `equals`.
+ */
+class ClassSupertypesCache {
+    private val closures = ConcurrentHashMap<IdentityKey, Set<TypeConstructorMarker>>()
+
+    /**
+     * Returns all type constructors reachable from [constructor] by supertypes (including [constructor] itself),
+     * or `null` if [constructor] is not a class type constructor.
+     */
+    fun supertypeConstructors(context: AbstractTypeCheckerContext, constructor: TypeConstructorMarker): Set<TypeConstructorMarker>? {
+        if (!with(context) { constructor.isClassTypeConstructor() }) return null
+
+        val key = IdentityKey(constructor)
+        closures[key]?.let { return it }
+
+        val closure = computeClosure(context, constructor)
+        return closures.putIfAbsent(key, closure) ?: closure
+    }
+
+    fun isSubtypeOfClass(
+        context: AbstractTypeCheckerContext,
+        typeConstructor: TypeConstructorMarker,
+        superConstructor: TypeConstructorMarker
+    ): Boolean? = supertypeConstructors(context, typeConstructor)?.contains(superConstructor)
+
+    fun clear() {
+        closures.clear()
+    }
+
+    private fun computeClosure(context: AbstractTypeCheckerContext, start: TypeConstructorMarker): Set<TypeConstructorMarker> =
+        with(context) {
+            val result = HashSet<TypeConstructorMarker>()
+            val deque = ArrayDeque<TypeConstructorMarker>()
+            deque.add(start)
+            while (deque.isNotEmpty()) {
+                val current = deque.poll()
+                if (!result.add(current)) continue
+
+                closures[IdentityKey(current)]?.let {
+                    result.addAll(it)
+                    continue
+                }
+
+                for (supertype in current.supertypes()) {
+                    deque.add(supertype.typeConstructor())
+                }
+            }
+            result
+        }
+
+    private class IdentityKey(val constructor: TypeConstructorMarker) {
+        override fun equals(other: Any?): Boolean = other is IdentityKey && other.constructor === constructor
+        override fun hashCode(): Int = System.identityHashCode(constructor)
+    }
+
+    companion object {
+        const val ENABLED_PROPERTY = "kotlin.types.class.supertypes.cache"
+
+        fun createIfEnabled(): ClassSupertypesCache? =
+            if (System.getProperty(ENABLED_PROPERTY)?.toBoolean() == true) ClassSupertypesCache() else null
+    }
+}
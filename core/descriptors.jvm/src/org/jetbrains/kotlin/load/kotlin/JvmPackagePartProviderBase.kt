@@ -11,6 +11,7 @@ import org.jetbrains.kotlin.metadata.jvm.deserialization.PackageParts
 import org.jetbrains.kotlin.name.ClassId
 import org.jetbrains.kotlin.serialization.deserialization.ClassData
 import org.jetbrains.kotlin.serialization.deserialization.MetadataPartProvider
+import org.jetbrains.kotlin.utils.SmartList
 
 abstract class JvmPackagePartProviderBase<MappingsKey> : PackagePartProvider, MetadataPartProvider {
 
@@ -39,9 +40,35 @@ abstract class JvmPackagePartProviderBase<MappingsKey> : PackagePartProvider, Me
     override fun findMetadataPackageParts(packageFqName: String): List<String> =
         getPackageParts(packageFqName).flatMap(PackageParts::metadataParts).distinct()
 
+    // Package FQ name -> modules containing parts of that package, in the order of `loadedModules`.
+    // Modules are only ever appended to `loadedModules`, so the index is extended with the new ones on demand
+    private val modulesByPackage = HashMap<String, SmartList<ModuleMappingInfo<MappingsKey>>>()
+    private var indexedModulesCount = 0
+
+    @Synchronized
+    private fun getModulesWithPackage(packageFqName: String): List<ModuleMappingInfo<MappingsKey>> {
+        val modules = loadedModules
+        if (indexedModulesCount > modules.size) {
+            modulesByPackage.clear()
+            indexedModulesCount = 0
+        }
+        for (index in indexedModulesCount until modules.size) {
+            val module = modules[index]
+            for (fqName in module.mapping.packageFqName2Parts.keys) {
+                modulesByPackage.getOrPut(fqName) { SmartList() }.add(module)
+            }
+        }
+        indexedModulesCount = modules.size
+
+        return modulesByPackage[packageFqName] ?: emptyList()
+    }
+
     private fun getPackageParts(packageFqName: String): Collection<PackageParts> {
+        val modules = getModulesWithPackage(packageFqName)
+        if (modules.isEmpty()) return emptyList()
+
         val result = mutableMapOf<MappingsKey, PackageParts>()
-        for ((root, mapping) in loadedModules) {
+        for ((root, mapping) in modules) {
             val newParts = mapping.findPackageParts(packageFqName) ?: continue
             result[root]?.let { parts -> parts += newParts } ?: result.put(root, newParts)
         }
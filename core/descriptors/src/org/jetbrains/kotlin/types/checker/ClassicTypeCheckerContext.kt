@@ -27,7 +27,8 @@ open class ClassicTypeCheckerContext(
     val errorTypeEqualsToAnything: Boolean,
     val stubTypeEqualsToAnything: Boolean = true,
     val allowedTypeVariable: Boolean = true,
-    val kotlinTypeRefiner: KotlinTypeRefiner = KotlinTypeRefiner.Default
+    val kotlinTypeRefiner: KotlinTypeRefiner = KotlinTypeRefiner.Default,
+    override val classSupertypesCache: ClassSupertypesCache? = null
 ) : ClassicTypeSystemContext, AbstractTypeCheckerContext() {
 
     override fun prepareType(type: KotlinTypeMarker): KotlinTypeMarker {
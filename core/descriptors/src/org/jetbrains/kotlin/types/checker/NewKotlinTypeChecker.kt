@@ -74,12 +74,15 @@ interface NewKotlinTypeChecker : KotlinTypeChecker {
 class NewKotlinTypeCheckerImpl(override val kotlinTypeRefiner: KotlinTypeRefiner) : NewKotlinTypeChecker {
     override val overridingUtil: OverridingUtil = OverridingUtil.createWithTypeRefiner(kotlinTypeRefiner)
 
+    private val classSupertypesCache: ClassSupertypesCache? = ClassSupertypesCache.createIfEnabled()
+
     override fun isSubtypeOf(subtype: KotlinType, supertype: KotlinType): Boolean =
-        ClassicTypeCheckerContext(true, kotlinTypeRefiner = kotlinTypeRefiner)
+        ClassicTypeCheckerContext(true, kotlinTypeRefiner = kotlinTypeRefiner, classSupertypesCache = classSupertypesCache)
             .isSubtypeOf(subtype.unwrap(), supertype.unwrap()) // todo fix flag errorTypeEqualsToAnything
 
     override fun equalTypes(a: KotlinType, b: KotlinType): Boolean =
-        ClassicTypeCheckerContext(false, kotlinTypeRefiner = kotlinTypeRefiner).equalTypes(a.unwrap(), b.unwrap())
+        ClassicTypeCheckerContext(false, kotlinTypeRefiner = kotlinTypeRefiner, classSupertypesCache = classSupertypesCache)
+            .equalTypes(a.unwrap(), b.unwrap())
 
     fun ClassicTypeCheckerContext.equalTypes(a: UnwrappedType, b: UnwrappedType): Boolean {
         return AbstractTypeChecker.equalTypes(this as AbstractTypeCheckerContext, a, b)
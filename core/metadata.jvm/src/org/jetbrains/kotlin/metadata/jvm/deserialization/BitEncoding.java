@@ -176,47 +176,41 @@ public class BitEncoding {
      */
     @NotNull
     public static byte[] decodeBytes(@NotNull String[] data) {
+        // The mode marker is skipped by offset instead of copying the first string, which may be up to 64K characters long
+        int firstStringOffset = 0;
         if (data.length > 0 && !data[0].isEmpty()) {
             char possibleMarker = data[0].charAt(0);
             if (possibleMarker == UtfEncodingKt.UTF8_MODE_MARKER) {
-                return UtfEncodingKt.stringsToBytes(dropMarker(data));
+                return UtfEncodingKt.stringsToBytes(data, 1);
             }
             if (possibleMarker == _8TO7_MODE_MARKER) {
-                data = dropMarker(data);
+                firstStringOffset = 1;
             }
         }
 
-        byte[] bytes = combineStringArrayIntoBytes(data);
-        // Adding 0x7f modulo max byte value is equivalent to subtracting 1 the same modulo, which is inverse to what happens in encodeBytes
-        addModuloByte(bytes, 0x7f);
-        return decode7to8(bytes);
-    }
-
-    @NotNull
-    private static String[] dropMarker(@NotNull String[] data) {
-        // Clone because the clients should be able to use the passed array for their own purposes.
-        // This is cheap because the size of the array is 1 or 2 almost always.
-        String[] result = data.clone();
-        result[0] = result[0].substring(1);
-        return result;
+        return decode7to8(combineStringArrayIntoBytes(data, firstStringOffset));
     }
 
     /**
-     * Combines the array of strings resulted from encodeBytes() into one long byte array
+     * Combines the array of strings resulted from encodeBytes() into one long byte array, skipping the first {@code firstStringOffset}
+     * characters of the first string.
+     *
+     * Each byte is decremented by one modulo max byte value on the fly, which is inverse to what happens in encodeBytes
      */
     @NotNull
-    private static byte[] combineStringArrayIntoBytes(@NotNull String[] data) {
-        int resultLength = 0;
+    private static byte[] combineStringArrayIntoBytes(@NotNull String[] data, int firstStringOffset) {
+        int resultLength = -firstStringOffset;
         for (String s : data) {
             assert s.length() <= MAX_UTF8_INFO_LENGTH : "String is too long: " + s.length();
             resultLength += s.length();
         }
 
-        byte[] result = new byte[resultLength];
+        byte[] result = new byte[Math.max(resultLength, 0)];
         int p = 0;
-        for (String s : data) {
-            for (int i = 0, n = s.length(); i < n; i++) {
-                result[p++] = (byte) s.charAt(i);
+        for (int k = 0; k < data.length; k++) {
+            String s = data[k];
+            for (int i = k == 0 ? firstStringOffset : 0, n = s.length(); i < n; i++) {
+                result[p++] = (byte) ((s.charAt(i) + 0x7f) & 0x7f);
             }
         }
 
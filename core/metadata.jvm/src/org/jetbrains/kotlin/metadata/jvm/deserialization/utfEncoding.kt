@@ -55,13 +55,17 @@ fun bytesToStrings(bytes: ByteArray): Array<String> {
     return result.toTypedArray()
 }
 
-fun stringsToBytes(strings: Array<String>): ByteArray {
-    val resultLength = strings.sumBy { it.length }
+@JvmOverloads
+fun stringsToBytes(strings: Array<String>, firstStringOffset: Int = 0): ByteArray {
+    var resultLength = -firstStringOffset
+    for (s in strings) {
+        resultLength += s.length
+    }
     val result = ByteArray(resultLength)
 
     var i = 0
-    for (s in strings) {
-        for (si in 0..s.length - 1) {
+    for ((index, s) in strings.withIndex()) {
+        for (si in (if (index == 0) firstStringOffset else 0) until s.length) {
             result[i++] = s[si].toByte()
         }
     }
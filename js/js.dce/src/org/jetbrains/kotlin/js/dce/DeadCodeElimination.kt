@@ -18,6 +18,7 @@ package org.jetbrains.kotlin.js.dce
 
 import com.google.gwt.dev.js.rhino.CodePosition
 import com.google.gwt.dev.js.rhino.ErrorReporter
+import com.google.gwt.dev.js.rhino.Node
 import org.jetbrains.kotlin.js.backend.JsToStringGenerationVisitor
 import org.jetbrains.kotlin.js.backend.ast.JsBlock
 import org.jetbrains.kotlin.js.backend.ast.JsGlobalBlock
@@ -27,9 +28,11 @@ import org.jetbrains.kotlin.js.dce.Context.Node
 import org.jetbrains.kotlin.js.facade.SourceMapBuilderConsumer
 import org.jetbrains.kotlin.js.inline.util.collectDefinedNames
 import org.jetbrains.kotlin.js.inline.util.fixForwardNameReferences
-import org.jetbrains.kotlin.js.parser.parse
+import org.jetbrains.kotlin.js.parser.mapStatements
+import org.jetbrains.kotlin.js.parser.parseSyntaxTree
 import org.jetbrains.kotlin.js.parser.sourcemaps.SourceMapError
 import org.jetbrains.kotlin.js.parser.sourcemaps.SourceMapLocationRemapper
+import org.jetbrains.kotlin.js.parser.sourcemaps.SourceMapParseResult
 import org.jetbrains.kotlin.js.parser.sourcemaps.SourceMapParser
 import org.jetbrains.kotlin.js.parser.sourcemaps.SourceMapSuccess
 import org.jetbrains.kotlin.js.sourceMap.SourceFilePathResolver
@@ -37,6 +40,9 @@ import org.jetbrains.kotlin.js.sourceMap.SourceMap3Builder
 import org.jetbrains.kotlin.js.util.TextOutputImpl
 import java.io.File
 import java.io.InputStreamReader
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
 
 class DeadCodeElimination(private val logConsumer: (DCELogLevel, String) -> Unit) {
     val moduleMapping = mutableMapOf<JsBlock, String>()
@@ -81,16 +87,15 @@ class DeadCodeElimination(private val logConsumer: (DCELogLevel, String) -> Unit
             val dce = DeadCodeElimination(logConsumer)
 
             var hasErrors = false
-            val blocks = inputFiles.map { file ->
+            val blocks = parseInParallel(inputFiles) { file, parsedFile ->
                 val block = JsGlobalBlock()
-                val code = file.resource.reader().let { InputStreamReader(it, "UTF-8") }.use { it.readText() }
-                val statements = parse(code, Reporter(file.resource.name, logConsumer), program.scope, file.resource.name) ?: run {
+                parsedFile.reporter.replay(logConsumer)
+                val syntaxTree = parsedFile.syntaxTree ?: run {
                     hasErrors = true
-                    return@map block
+                    return@parseInParallel block
                 }
-                val sourceMapParse = file.sourceMapResource
-                        ?.let { SourceMapParser.parse(InputStreamReader(it.reader(), "UTF-8").readText()) }
-                when (sourceMapParse) {
+                val statements = mapStatements(syntaxTree, program.scope, file.resource.name)
+                when (val sourceMapParse = parsedFile.sourceMapParse) {
                     is SourceMapError -> {
                         logConsumer(
                                 DCELogLevel.WARN,
@@ -131,24 +136,72 @@ class DeadCodeElimination(private val logConsumer: (DCELogLevel, String) -> Unit
 
                 with(File(file.outputPath)) {
                     parentFile.mkdirs()
-                    writeText(textOutput.toString())
+                    writeTextIfChanged(textOutput.toString())
                 }
 
                 if (file.sourceMapResource != null) {
-                    sourceMapFile.writeText(sourceMapContent)
+                    sourceMapFile.writeTextIfChanged(sourceMapContent)
                 }
             }
 
             return DeadCodeEliminationResult(dce.reachableNodes, DeadCodeEliminationStatus.OK)
         }
 
-        private class Reporter(private val fileName: String, private val logConsumer: (DCELogLevel, String) -> Unit) : ErrorReporter {
+        private class ParsedFile(val syntaxTree: Node?, val sourceMapParse: SourceMapParseResult?, val reporter: Reporter)
+
+        // Parsing doesn't depend on other files, so it's done concurrently. Mapping syntax trees to JS AST declares names
+        // in the shared program scope, so parsed files are passed to [process] on the calling thread, in the order of files.
+        private fun <T> parseInParallel(inputFiles: Collection<InputFile>, process: (InputFile, ParsedFile) -> T): List<T> {
+            val threadCount = minOf(inputFiles.size, Runtime.getRuntime().availableProcessors())
+            if (threadCount <= 1) return inputFiles.map { process(it, parseFile(it)) }
+
+            val executor = Executors.newFixedThreadPool(threadCount)
+            try {
+                val futures = inputFiles.map { file -> executor.submit(Callable { parseFile(file) }) }
+                return inputFiles.zip(futures).map { (file, future) ->
+                    val parsedFile = try {
+                        future.get()
+                    } catch (e: ExecutionException) {
+                        throw e.cause ?: e
+                    }
+                    process(file, parsedFile)
+                }
+            } finally {
+                executor.shutdownNow()
+            }
+        }
+
+        private fun parseFile(file: InputFile): ParsedFile {
+            val reporter = Reporter(file.resource.name)
+            val code = file.resource.reader().let { InputStreamReader(it, "UTF-8") }.use { it.readText() }
+            val syntaxTree = parseSyntaxTree(code, reporter)
+            val sourceMapParse = file.sourceMapResource
+                    ?.let { SourceMapParser.parse(InputStreamReader(it.reader(), "UTF-8").use { reader -> reader.readText() }) }
+            return ParsedFile(syntaxTree, sourceMapParse, reporter)
+        }
+
+        private fun File.writeTextIfChanged(text: String) {
+            // Keep timestamps of outputs which are not changed by DCE, so that tools consuming them don't reprocess them
+            if (isFile && readText() == text) return
+            writeText(text)
+        }
+
+        // Messages are reported on the thread which parses the file, so they are collected and reported in the order of files
+        private class Reporter(private val fileName: String) : ErrorReporter {
+            private val messages = mutableListOf<Pair<DCELogLevel, String>>()
+
             override fun warning(message: String, startPosition: CodePosition, endPosition: CodePosition) {
-                logConsumer(DCELogLevel.WARN, "at $fileName (${startPosition.line + 1}, ${startPosition.offset + 1}): $message")
+                messages += DCELogLevel.WARN to "at $fileName (${startPosition.line + 1}, ${startPosition.offset + 1}): $message"
             }
 
             override fun error(message: String, startPosition: CodePosition, endPosition: CodePosition) {
-                logConsumer(DCELogLevel.ERROR, "at $fileName (${startPosition.line + 1}, ${startPosition.offset + 1}): $message")
+                messages += DCELogLevel.ERROR to "at $fileName (${startPosition.line + 1}, ${startPosition.offset + 1}): $message"
+            }
+
+            fun replay(logConsumer: (DCELogLevel, String) -> Unit) {
+                for ((level, message) in messages) {
+                    logConsumer(level, message)
+                }
             }
         }
     }
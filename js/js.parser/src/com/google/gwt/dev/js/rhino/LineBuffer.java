@@ -70,6 +70,15 @@ final class LineBuffer {
         this.lineStart = -position.getOffset();
     }
 
+    /**
+     * Creates a buffer over the whole {@code source}, which is then read without copying it in chunks
+     * of {@link #BUFLEN} characters.
+     */
+    LineBuffer(char[] source, CodePosition position) {
+        this(EMPTY_READER, position);
+        this.source = source;
+    }
+
     int read() throws IOException {
         for(;;) {
             if (end == offset && !fill())
@@ -249,8 +258,12 @@ final class LineBuffer {
         buffer = otherBuffer;
         otherBuffer = tempBuffer;
 
+        // the whole source is used as the first buffer, if it's given.
+        if (source != null) {
+            buffer = source;
+        }
         // allocate the buffers lazily, in case we're handed a short string.
-        if (buffer == null) {
+        else if (buffer == null) {
             buffer = new char[BUFLEN];
         }
 
@@ -269,7 +282,12 @@ final class LineBuffer {
         prevStart = lineStart = (otherBuffer == null) ? 0 : lineStart - end;
 
         offset = 0;
-        end = in.read(buffer, 0, buffer.length);
+        if (source != null) {
+            end = source.length > 0 ? source.length : -1;
+            source = null;
+        } else {
+            end = in.read(buffer, 0, buffer.length);
+        }
         if (end < 0) {
             end = 0;
 
@@ -313,7 +331,19 @@ final class LineBuffer {
     // true only when (c & EOL_HINT_MASK) == 0
     private static final int EOL_HINT_MASK = 0xdfd0;
 
+    private static final Reader EMPTY_READER = new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            return -1;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
     private Reader in;
+    private char[] source = null;
     private char[] otherBuffer = null;
     private char[] buffer = null;
 
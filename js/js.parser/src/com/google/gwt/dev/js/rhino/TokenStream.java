@@ -497,7 +497,19 @@ public class TokenStream {
     public TokenStream(Reader in,
                        String sourceName, CodePosition position)
     {
-        this.in = new LineBuffer(in, position);
+        this(new LineBuffer(in, position), sourceName, position);
+    }
+
+    /**
+     * Creates a stream over {@code code} starting from {@code offset}, which is scanned in place instead of being read
+     * through a {@link Reader}.
+     */
+    public TokenStream(String code, int offset, String sourceName, CodePosition position) {
+        this(new LineBuffer(toCharArray(code, offset), position), sourceName, position);
+    }
+
+    private TokenStream(LineBuffer in, String sourceName, CodePosition position) {
+        this.in = in;
         this.pushbackToken = EOF;
         this.sourceName = sourceName;
         flags = 0;
@@ -700,7 +712,7 @@ public class TokenStream {
             }
             in.unread();
 
-            String str = getStringFromBuffer();
+            String str = getInternedStringFromBuffer();
             if (!containsEscape && !treatKeywordAsIdentifier) {
                 // OPT we shouldn't have to make a string (object!) to
                 // check if it's a keyword.
@@ -918,7 +930,7 @@ public class TokenStream {
                 c = in.read();
             }
 
-            this.string = getStringFromBuffer();
+            this.string = getInternedStringFromBuffer();
             return STRING;
         }
 
@@ -1406,6 +1418,66 @@ public class TokenStream {
         return new String(stringBuffer, 0, stringBufferTop);
     }
 
+    /**
+     * Same as {@link #getStringFromBuffer()}, but returns the same instance for repeated identifiers and short strings,
+     * which are very common in generated code.
+     */
+    private String getInternedStringFromBuffer() {
+        if (stringBufferTop > MAX_INTERNED_LENGTH) return getStringFromBuffer();
+
+        // Same as String.hashCode(), so that the table can be rehashed without accessing characters
+        int hash = 0;
+        for (int i = 0; i < stringBufferTop; i++) {
+            hash = 31 * hash + stringBuffer[i];
+        }
+
+        int mask = internedStrings.length - 1;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        for (;;) {
+            String interned = internedStrings[index];
+            if (interned == null) break;
+            if (interned.hashCode() == hash && bufferEquals(interned)) return interned;
+            index = (index + 1) & mask;
+        }
+
+        String result = getStringFromBuffer();
+        internedStrings[index] = result;
+        if (++internedStringCount * 2 > internedStrings.length) {
+            rehashInternedStrings();
+        }
+        return result;
+    }
+
+    private boolean bufferEquals(String string) {
+        if (string.length() != stringBufferTop) return false;
+        for (int i = 0; i < stringBufferTop; i++) {
+            if (string.charAt(i) != stringBuffer[i]) return false;
+        }
+        return true;
+    }
+
+    private void rehashInternedStrings() {
+        String[] oldStrings = internedStrings;
+        internedStrings = new String[oldStrings.length * 2];
+        int mask = internedStrings.length - 1;
+        for (String string : oldStrings) {
+            if (string == null) continue;
+            int hash = string.hashCode();
+            int index = (hash ^ (hash >>> 16)) & mask;
+            while (internedStrings[index] != null) {
+                index = (index + 1) & mask;
+            }
+            internedStrings[index] = string;
+        }
+    }
+
+    private static char[] toCharArray(String code, int offset) {
+        int start = Math.min(offset, code.length());
+        char[] chars = new char[code.length() - start];
+        code.getChars(start, code.length(), chars, 0);
+        return chars;
+    }
+
     private void addToString(int c) {
         if (stringBufferTop == stringBuffer.length) {
             char[] tmp = new char[stringBuffer.length * 2];
@@ -1496,4 +1568,8 @@ public class TokenStream {
 
     private char[] stringBuffer = new char[128];
     private int stringBufferTop;
+
+    private static final int MAX_INTERNED_LENGTH = 64;
+    private String[] internedStrings = new String[256];
+    private int internedStringCount;
 }
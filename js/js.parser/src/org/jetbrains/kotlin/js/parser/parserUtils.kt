@@ -19,16 +19,24 @@ package org.jetbrains.kotlin.js.parser
 import com.google.gwt.dev.js.JsAstMapper
 import com.google.gwt.dev.js.rhino.*
 import org.jetbrains.kotlin.js.backend.ast.*
-import java.io.Reader
-import java.io.StringReader
 
 fun parse(code: String, reporter: ErrorReporter, scope: JsScope, fileName: String): List<JsStatement>? {
     val insideFunction = scope is JsFunctionScope
-    val node = parse(code, CodePosition(0, 0), 0, reporter, insideFunction, Parser::parse)
-    return node?.toJsAst(scope, fileName) {
+    val node = parseSyntaxTree(code, reporter, insideFunction)
+    return node?.let { mapStatements(it, scope, fileName) }
+}
+
+/**
+ * Parses [code] into a syntax tree which is not bound to any scope. Parser state is per-thread, so unlike [parse],
+ * different files can be parsed concurrently. The tree is converted to statements by [mapStatements].
+ */
+fun parseSyntaxTree(code: String, reporter: ErrorReporter, insideFunction: Boolean = false): Node? =
+    parse(code, CodePosition(0, 0), 0, reporter, insideFunction, Parser::parse)
+
+fun mapStatements(syntaxTree: Node, scope: JsScope, fileName: String): List<JsStatement> =
+    syntaxTree.toJsAst(scope, fileName) {
         mapStatements(it)
     }
-}
 
 fun parseExpressionOrStatement(
         code: String,
@@ -100,7 +108,7 @@ private fun parse(
     Context.enter().errorReporter = reporter
 
     try {
-        val ts = TokenStream(StringReader(code, offset), "<parser>", startPosition)
+        val ts = TokenStream(code, offset, "<parser>", startPosition)
         val parser = Parser(IRFactory(ts), insideFunction)
         return parser.parseAction(ts) as? Node
     } finally {
@@ -112,12 +120,6 @@ inline
 private fun <T> Node.toJsAst(scope: JsScope, fileName: String, mapAction: JsAstMapper.(Node)->T): T =
         JsAstMapper(scope, fileName).mapAction(this)
 
-private fun StringReader(string: String, offset: Int): Reader {
-    val reader = StringReader(string)
-    reader.skip(offset.toLong())
-    return reader
-}
-
 private class AccumulatingReporter : ErrorReporter {
     var hasErrors = false
     val warnings = mutableListOf<Warning>()
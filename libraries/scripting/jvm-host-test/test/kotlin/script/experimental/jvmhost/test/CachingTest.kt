@@ -12,6 +12,7 @@ import org.junit.Test
 import java.io.File
 import java.io.ObjectInputStream
 import java.io.ObjectOutputStream
+import java.net.URLClassLoader
 import java.security.MessageDigest
 import java.util.ArrayList
 import kotlin.script.experimental.api.*
@@ -23,6 +24,7 @@ import kotlin.script.experimental.jvm.util.KotlinJars
 import kotlin.script.experimental.jvm.util.classpathFromClass
 import kotlin.script.experimental.jvmhost.BasicJvmScriptingHost
 import kotlin.script.experimental.jvmhost.CompiledScriptJarsCache
+import kotlin.script.experimental.jvmhost.ContentAddressedCompiledScriptJarsCache
 import kotlin.script.experimental.jvmhost.JvmScriptCompiler
 
 class CachingTest : TestCase() {
@@ -125,6 +127,53 @@ class CachingTest : TestCase() {
         }
     }
 
+    @Test
+    fun testContentAddressedJarCache() {
+        withTempDir("scriptingTestJarCache") { cacheDir ->
+            val cache = TestContentAddressedScriptJarsCache(cacheDir)
+
+            checkWithCache(cache, simpleScript, simpleScriptExpectedOutput)
+
+            Assert.assertEquals(1, cacheDir.listFiles()!!.count { it.extension == "jar" })
+
+            val scriptCompilationConfiguration = ScriptCompilationConfiguration {
+                updateClasspath(KotlinJars.kotlinScriptStandardJarsWithReflect)
+            }
+            val jar = cacheDir.listFiles()!!.single { it.extension == "jar" }
+
+            fun evalWithBaseClassLoader(baseClassLoader: ClassLoader): Class<*> {
+                jar.setLastModified(0)
+                val cachedScript = cache.get(simpleScript.toScriptSource(), scriptCompilationConfiguration)!!
+                // memory hits count as an access for the eviction of least recently used jars
+                Assert.assertNotEquals(0, jar.lastModified())
+
+                val scriptEvaluationConfiguration = ScriptEvaluationConfiguration {
+                    jvm {
+                        baseClassLoader(baseClassLoader)
+                    }
+                }
+                val output = captureOut {
+                    runBlocking {
+                        BasicJvmScriptEvaluator()(cachedScript, scriptEvaluationConfiguration).valueOrThrow()
+                    }
+                }.lines()
+                Assert.assertEquals(simpleScriptExpectedOutput, output)
+                return runBlocking { cachedScript.getClass(scriptEvaluationConfiguration) }.valueOrThrow().java
+            }
+
+            val baseClassLoader1 = URLClassLoader(emptyArray(), CachingTest::class.java.classLoader)
+            val baseClassLoader2 = URLClassLoader(emptyArray(), CachingTest::class.java.classLoader)
+
+            val scriptClass1 = evalWithBaseClassLoader(baseClassLoader1)
+            val scriptClass2 = evalWithBaseClassLoader(baseClassLoader2)
+            Assert.assertSame(baseClassLoader1, scriptClass1.classLoader.parent)
+            Assert.assertSame(baseClassLoader2, scriptClass2.classLoader.parent)
+
+            // classes of the script are loaded once per base class loader
+            Assert.assertSame(scriptClass1, evalWithBaseClassLoader(baseClassLoader1))
+        }
+    }
+
     private fun checkWithCache(
         cache: ScriptingCacheWithCounters, script: String, expectedOutput: List<String>, checkDirectEval: Boolean = true,
         compilationConfiguration: ScriptCompilationConfiguration.Builder.() -> Unit = {},
@@ -278,6 +327,27 @@ class TestCompiledScriptJarsCache(val baseDir: File) :
         private set
 }
 
+private class TestContentAddressedScriptJarsCache(baseDir: File) :
+    ContentAddressedCompiledScriptJarsCache(baseDir), ScriptingCacheWithCounters {
+
+    override fun get(script: SourceCode, scriptCompilationConfiguration: ScriptCompilationConfiguration): CompiledScript? =
+        super.get(script, scriptCompilationConfiguration)?.also { retrievedScripts++ }
+
+    override fun store(
+        compiledScript: CompiledScript,
+        script: SourceCode,
+        scriptCompilationConfiguration: ScriptCompilationConfiguration
+    ) {
+        super.store(compiledScript, script, scriptCompilationConfiguration).also { storedScripts++ }
+    }
+
+    override var storedScripts: Int = 0
+        private set
+
+    override var retrievedScripts: Int = 0
+        private set
+}
+
 internal fun uniqueScriptHash(script: SourceCode, scriptCompilationConfiguration: ScriptCompilationConfiguration): String {
     val digestWrapper = MessageDigest.getInstance("MD5")
     digestWrapper.update(script.text.toByteArray())
@@ -12,8 +12,11 @@ import org.jetbrains.kotlin.test.testFramework.resetApplicationToNull
 import java.io.Closeable
 import java.util.concurrent.atomic.AtomicInteger
 import java.util.concurrent.locks.ReentrantReadWriteLock
+import kotlin.concurrent.thread
 import kotlin.script.experimental.jvmhost.repl.JvmReplCompiler
 import kotlin.script.experimental.jvmhost.repl.JvmReplEvaluator
+import kotlin.script.experimental.jvmhost.repl.KJvmReplCompilerPool
+import kotlin.test.assertFailsWith
 
 // Adapted form GenericReplTest
 
@@ -68,6 +71,26 @@ class LegacyReplTest : TestCase() {
         }
     }
 
+    fun testReplWithPooledCompilers() {
+        KJvmReplCompilerPool(simpleScriptCompilationConfiguration).use { pool ->
+            repeat(2) {
+                LegacyTestRepl(pool).use { repl ->
+                    assertEvalUnit(repl, "val x = 5")
+                    assertEvalResult(repl, "x + 2", 7)
+                }
+            }
+        }
+    }
+
+    fun testClosePoolWithQueuedPreparations() {
+        val pool = KJvmReplCompilerPool(simpleScriptCompilationConfiguration, poolSize = 3)
+        // all but the first preparation are still queued on the pool thread
+        val closing = thread { pool.close() }
+        closing.join(10_000)
+        assertFalse("Closing the pool hangs", closing.isAlive)
+        assertFailsWith<IllegalStateException> { pool.acquire() }
+    }
+
     fun testReplResultFieldWithFunction() {
         LegacyTestRepl().use { repl ->
             assertEvalResultIs<Function0<Int>>(repl, "{ 1 + 2 }")
@@ -117,7 +140,7 @@ class LegacyReplTestLong2 : TestCase() {
     }
 }
 
-internal class LegacyTestRepl : Closeable {
+internal class LegacyTestRepl(private val replCompilerPool: KJvmReplCompilerPool? = null) : Closeable {
     val application = ApplicationManager.getApplication()
 
     val currentLineCounter = AtomicInteger()
@@ -125,7 +148,8 @@ internal class LegacyTestRepl : Closeable {
     fun nextCodeLine(code: String): ReplCodeLine = ReplCodeLine(currentLineCounter.getAndIncrement(), 0, code)
 
     val replCompiler: JvmReplCompiler by lazy {
-        JvmReplCompiler(simpleScriptCompilationConfiguration, false)
+        if (replCompilerPool == null) JvmReplCompiler(simpleScriptCompilationConfiguration, false)
+        else JvmReplCompiler(simpleScriptCompilationConfiguration, false, replCompiler = replCompilerPool.acquire())
     }
 
     val compiledEvaluator: ReplEvaluator by lazy {
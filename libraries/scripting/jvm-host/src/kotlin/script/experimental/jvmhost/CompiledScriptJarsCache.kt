@@ -48,11 +48,21 @@ open class CompiledScriptJarsCache(val scriptToFile: (SourceCode, ScriptCompilat
     }
 }
 
-private class KJvmCompiledScriptLazilyLoadedFromClasspath(
-    private val scriptClassFQName: String,
-    private val classPath: List<File>
+/**
+ * A compiled script that is loaded by [loadScript] with the base class loader of its first evaluation.
+ */
+internal class KJvmCompiledScriptLazilyLoadedFromClasspath(
+    private val loadScript: (baseClassLoader: ClassLoader?) -> KJvmCompiledScript
 ) : CompiledScript {
 
+    constructor(scriptClassFQName: String, classPath: List<File>) : this({ baseClassLoader ->
+        val classLoader = URLClassLoader(
+            classPath.map { it.toURI().toURL() }.toTypedArray(),
+            baseClassLoader
+        )
+        createScriptFromClassLoader(scriptClassFQName, classLoader)
+    })
+
     private var loadedScript: KJvmCompiledScript? = null
 
     fun getScriptOrError(): KJvmCompiledScript = loadedScript ?: throw RuntimeException("Compiled script is not loaded yet")
@@ -61,11 +71,7 @@ private class KJvmCompiledScriptLazilyLoadedFromClasspath(
         if (loadedScript == null) {
             val actualEvaluationConfiguration = scriptEvaluationConfiguration ?: ScriptEvaluationConfiguration()
             val baseClassLoader = actualEvaluationConfiguration[ScriptEvaluationConfiguration.jvm.baseClassLoader]
-            val classLoader = URLClassLoader(
-                classPath.map { it.toURI().toURL() }.toTypedArray(),
-                baseClassLoader
-            )
-            loadedScript = createScriptFromClassLoader(scriptClassFQName, classLoader)
+            loadedScript = loadScript(baseClassLoader)
         }
         return getScriptOrError().getClass(scriptEvaluationConfiguration)
     }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package kotlin.script.experimental.jvmhost
+
+import java.io.File
+import java.net.URLClassLoader
+import java.security.MessageDigest
+import java.util.jar.JarInputStream
+import kotlin.script.experimental.api.*
+import kotlin.script.experimental.jvm.JvmDependency
+import kotlin.script.experimental.jvm.impl.KJvmCompiledScript
+import kotlin.script.experimental.jvm.impl.createScriptFromClassLoader
+
+/**
+ * Compiled scripts cache that stores script jars in [baseDir] under names derived from the script text, the compilation
+ * configuration and the state of the compilation classpath, so no user-supplied mapping is needed.
+ *
+ * The total size of the stored jars is limited by [maxCacheSizeBytes], least recently used jars are removed first.
+ * Up to [maxLoadedScripts] jars retrieved from the cache are remembered in memory. Every [get] returns a new
+ * [CompiledScript], but scripts evaluated with the same base class loader share the class loader of the jar, so repeated
+ * evaluations of an unchanged script do not load its classes again.
+ *
+ * Remembered jars are never removed, because their class loaders may still read them, so the size limit may be exceeded
+ * while they are remembered. A jar that is no longer remembered can be removed while a script loaded from it is still in
+ * use, and the script then fails to load classes it hasn't loaded yet. [maxLoadedScripts] should therefore cover the
+ * scripts that are in use at the same time.
+ */
+open class ContentAddressedCompiledScriptJarsCache(
+    val baseDir: File,
+    val maxCacheSizeBytes: Long = DEFAULT_MAX_CACHE_SIZE_BYTES,
+    val maxLoadedScripts: Int = DEFAULT_MAX_LOADED_SCRIPTS
+) : CompiledScriptJarsCache({ script, scriptCompilationConfiguration ->
+    File(baseDir, scriptCacheKey(script, scriptCompilationConfiguration) + ".jar")
+}) {
+
+    private val loadedJars = object : LinkedHashMap<File, LoadedScriptJar>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<File, LoadedScriptJar>?): Boolean = size > maxLoadedScripts
+    }
+
+    override fun get(script: SourceCode, scriptCompilationConfiguration: ScriptCompilationConfiguration): CompiledScript? {
+        val file = scriptToFile(script, scriptCompilationConfiguration)!!
+        val loadedJar = synchronized(loadedJars) { loadedJars[file] } ?: run {
+            if (!file.exists()) return null
+            val className = file.inputStream().use { input ->
+                JarInputStream(input).use { it.manifest.mainAttributes.getValue("Main-Class") }
+            }
+            LoadedScriptJar(file, className).also {
+                synchronized(loadedJars) { loadedJars[file] = it }
+            }
+        }
+        // the modification time is used as the last access time for the eviction
+        file.setLastModified(System.currentTimeMillis())
+        return KJvmCompiledScriptLazilyLoadedFromClasspath(loadedJar::getScript)
+    }
+
+    override fun store(
+        compiledScript: CompiledScript,
+        script: SourceCode,
+        scriptCompilationConfiguration: ScriptCompilationConfiguration
+    ) {
+        baseDir.mkdirs()
+        super.store(compiledScript, script, scriptCompilationConfiguration)
+        evictLeastRecentlyUsed(keep = scriptToFile(script, scriptCompilationConfiguration)!!)
+    }
+
+    private fun evictLeastRecentlyUsed(keep: File) {
+        val jars = baseDir.listFiles { file -> file.isFile && file.extension == "jar" }?.sortedBy { it.lastModified() } ?: return
+        var totalSize = jars.fold(0L) { size, jar -> size + jar.length() }
+        for (jar in jars) {
+            if (totalSize <= maxCacheSizeBytes) break
+            if (jar == keep || synchronized(loadedJars) { jar in loadedJars }) continue
+            val size = jar.length()
+            if (jar.delete()) {
+                totalSize -= size
+                synchronized(loadedJars) { loadedJars.remove(jar) }
+            }
+        }
+    }
+
+    companion object {
+        const val DEFAULT_MAX_CACHE_SIZE_BYTES = 256L * 1024 * 1024
+        const val DEFAULT_MAX_LOADED_SCRIPTS = 128
+    }
+}
+
+/**
+ * A script jar with the scripts loaded from it, one per base class loader. Only a few base class loaders are remembered,
+ * because a loaded script keeps its base class loader reachable.
+ */
+private class LoadedScriptJar(private val jar: File, private val scriptClassFQName: String) {
+    private val scripts = object : LinkedHashMap<ClassLoader?, KJvmCompiledScript>(4, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<ClassLoader?, KJvmCompiledScript>?): Boolean =
+            size > MAX_BASE_CLASS_LOADERS
+    }
+
+    @Synchronized
+    fun getScript(baseClassLoader: ClassLoader?): KJvmCompiledScript =
+        scripts.getOrPut(baseClassLoader) {
+            createScriptFromClassLoader(scriptClassFQName, URLClassLoader(arrayOf(jar.toURI().toURL()), baseClassLoader))
+        }
+
+    companion object {
+        private const val MAX_BASE_CLASS_LOADERS = 4
+    }
+}
+
+private fun scriptCacheKey(script: SourceCode, scriptCompilationConfiguration: ScriptCompilationConfiguration): String {
+    val digest = MessageDigest.getInstance("SHA-256")
+    digest.update(script.text.toByteArray())
+    scriptCompilationConfiguration.notTransientData.entries
+        .sortedBy { it.key.name }
+        .forEach {
+            digest.update(it.key.name.toByteArray())
+            digest.update(it.value.toString().toByteArray())
+        }
+    // paths are already a part of the configuration, so the content of the classpath is approximated by file stamps
+    scriptCompilationConfiguration[ScriptCompilationConfiguration.dependencies]
+        ?.filterIsInstance<JvmDependency>()
+        ?.flatMap { it.classpath }
+        ?.forEach { file ->
+            digest.update("${file.path}:${file.length()}:${file.lastModified()}".toByteArray())
+        }
+    return digest.digest().joinToString("") { "%02x".format(it) }
+}
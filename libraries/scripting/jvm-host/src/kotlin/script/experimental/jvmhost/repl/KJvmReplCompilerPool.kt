@@ -0,0 +1,115 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package kotlin.script.experimental.jvmhost.repl
+
+import org.jetbrains.kotlin.scripting.compiler.plugin.impl.KJvmReplCompilerBase
+import org.jetbrains.kotlin.scripting.compiler.plugin.repl.ReplCodeAnalyzerBase
+import java.io.Closeable
+import java.util.concurrent.*
+import kotlin.script.experimental.api.ScriptCompilationConfiguration
+import kotlin.script.experimental.api.refineConfigurationBeforeParsing
+import kotlin.script.experimental.host.ScriptingHostConfiguration
+import kotlin.script.experimental.host.withDefaultsFrom
+import kotlin.script.experimental.jvm.defaultJvmScriptingHostConfiguration
+
+/**
+ * Pool of REPL compilers with the compilation environment already initialized for [scriptCompilationConfiguration].
+ *
+ * Creating the environment and indexing the compilation classpath is the main part of the first snippet latency,
+ * so the pool keeps [poolSize] compilers prepared on a background thread and replaces each acquired one with a new one.
+ * Every acquired compiler is exclusively owned by the caller, e.g. by passing it to [JvmReplCompiler], and may only be
+ * used with [scriptCompilationConfiguration] and [hostConfiguration].
+ *
+ * Each compiler has its own environment: the analyzed classpath module is not shared between compilers, because the
+ * environment of a REPL session accumulates the snippet history. JSR-223 engines don't take compilers from the pool,
+ * since their compilation configuration refers to the engine itself.
+ * Environments are prepared eagerly only for configurations without [refineConfigurationBeforeParsing] handlers,
+ * since otherwise the environment depends on the first snippet.
+ */
+class KJvmReplCompilerPool(
+    val scriptCompilationConfiguration: ScriptCompilationConfiguration,
+    val hostConfiguration: ScriptingHostConfiguration = defaultJvmScriptingHostConfiguration,
+    val poolSize: Int = 1
+) : Closeable {
+
+    private val executor = Executors.newSingleThreadExecutor { runnable ->
+        Thread(runnable, "Kotlin REPL compiler pool").apply { isDaemon = true }
+    }
+
+    private val preparedCompilers = LinkedBlockingQueue<PreparedCompiler>()
+
+    @Volatile
+    private var closed = false
+
+    init {
+        repeat(poolSize) { schedulePreparation() }
+    }
+
+    fun acquire(): KJvmReplCompilerBase<ReplCodeAnalyzerBase> {
+        if (closed) throw IllegalStateException("REPL compiler pool is closed")
+        val prepared = preparedCompilers.poll() ?: return prepareCompiler()
+        schedulePreparation()
+        return try {
+            prepared.get()
+        } catch (e: ExecutionException) {
+            null
+        } catch (e: CancellationException) {
+            // the pool was closed concurrently
+            null
+        } ?: prepareCompiler()
+    }
+
+    private fun schedulePreparation() {
+        if (closed) return
+        val prepared = PreparedCompiler()
+        preparedCompilers.add(prepared)
+        try {
+            executor.execute(prepared)
+        } catch (e: RejectedExecutionException) {
+            // the pool was closed concurrently
+            prepared.cancel(false)
+        }
+    }
+
+    private fun prepareCompiler(): KJvmReplCompilerBase<ReplCodeAnalyzerBase> =
+        KJvmReplCompilerBase.create(hostConfiguration.withDefaultsFrom(defaultJvmScriptingHostConfiguration)).also {
+            if (scriptCompilationConfiguration[ScriptCompilationConfiguration.refineConfigurationBeforeParsing].isNullOrEmpty()) {
+                it.state.getCompilationState(scriptCompilationConfiguration)
+            }
+        }
+
+    /**
+     * Doesn't wait for the compiler being prepared: it is disposed when its preparation is finished.
+     */
+    override fun close() {
+        closed = true
+        // tasks dropped by the executor never complete on their own
+        for (task in executor.shutdownNow()) {
+            (task as? Future<*>)?.cancel(false)
+        }
+        for (prepared in preparedCompilers.toList()) {
+            if (prepared.isDone) prepared.disposeIfOwned()
+        }
+    }
+
+    /**
+     * A compiler being prepared for the pool. It is owned by the pool while it's in [preparedCompilers], so whoever removes
+     * it from there first after the pool is closed disposes it.
+     */
+    private inner class PreparedCompiler : FutureTask<KJvmReplCompilerBase<ReplCodeAnalyzerBase>>(Callable { prepareCompiler() }) {
+        override fun done() {
+            if (closed) disposeIfOwned()
+        }
+
+        fun disposeIfOwned() {
+            if (!preparedCompilers.remove(this) || isCancelled) return
+            try {
+                get().state.dispose()
+            } catch (e: ExecutionException) {
+            }
+        }
+    }
+}
@@ -80,6 +80,9 @@ open class KaptGenerateStubsTask : KotlinCompile() {
         super.setSource(sourceRootsContainer.set(sources))
     }
 
+    // Kapt writes its own files next to the stubs and the incremental data in place
+    override fun outputsReplacedByCompiler(): FileCollection? = null
+
     private fun isSourceRootAllowed(source: File): Boolean =
         !destinationDir.isParentOf(source) &&
                 !stubsDir.isParentOf(source) &&
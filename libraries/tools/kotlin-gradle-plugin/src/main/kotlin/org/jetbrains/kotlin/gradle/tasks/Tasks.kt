@@ -186,6 +186,13 @@ abstract class AbstractKotlinCompile<T : CommonCompilerArguments>() : AbstractKo
 
     override fun localStateDirectories(): FileCollection = localStateDirectoriesProvider
 
+    /**
+     * Outputs which the compiler only deletes or replaces and never modifies in place,
+     * so the backup made before an incremental build can hard-link them instead of copying.
+     * The backup checks that the links are unchanged before restoring them.
+     */
+    internal open fun outputsReplacedByCompiler(): FileCollection? = null
+
     // indicates that task should compile kotlin incrementally if possible
     // it's not possible when IncrementalTaskInputs#isIncremental returns false (i.e first build)
     // todo: deprecate and remove (we may need to design api for configuring IC)
@@ -337,7 +344,7 @@ abstract class AbstractKotlinCompile<T : CommonCompilerArguments>() : AbstractKo
         val outputsBackup: TaskOutputsBackup? =
             if (isIncrementalCompilationEnabled() && inputs.isIncremental)
                 metrics.measure(BuildTime.BACKUP_OUTPUT) {
-                    TaskOutputsBackup(allOutputFiles())
+                    TaskOutputsBackup(allOutputFiles(), File(temporaryDir, "outputs-backup"), outputsReplacedByCompiler())
                 }
             else null
 
@@ -352,10 +359,14 @@ abstract class AbstractKotlinCompile<T : CommonCompilerArguments>() : AbstractKo
         } catch (t: Throwable) {
             if (outputsBackup != null) {
                 metrics.measure(BuildTime.RESTORE_OUTPUT_FROM_BACKUP) {
-                    outputsBackup.restoreOutputs()
+                    if (!outputsBackup.restoreOutputs()) {
+                        logger.kotlinInfo("Outputs of $path were modified in place and were deleted instead of restored")
+                    }
                 }
             }
             throw t
+        } finally {
+            outputsBackup?.deleteSnapshot()
         }
     }
 
@@ -495,6 +506,13 @@ open class KotlinCompile : AbstractKotlinCompile<K2JVMCompilerArguments>(), Kotl
     override fun findKotlinCompilerClasspath(project: Project): List<File> =
         findKotlinJvmCompilerClasspath(project)
 
+    // Class files and module mappings are written with `writeAll`, which replaces existing files.
+    // Other files in the destination directory may come from compiler plugins, which can write them in place.
+    override fun outputsReplacedByCompiler(): FileCollection? =
+        projectObjects.fileCollection().from(destinationDir).asFileTree.matching {
+            it.include("**/*.class", "**/*.kotlin_module")
+        }
+
     override fun createCompilerArgs(): K2JVMCompilerArguments =
         K2JVMCompilerArguments()
 
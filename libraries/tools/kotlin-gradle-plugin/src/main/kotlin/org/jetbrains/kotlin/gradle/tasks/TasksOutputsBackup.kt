@@ -6,27 +6,87 @@
 package org.jetbrains.kotlin.gradle.tasks
 
 import org.gradle.api.file.FileCollection
-import org.jetbrains.kotlin.utils.keysToMap
 import java.io.File
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
 import java.util.HashSet
+import java.util.concurrent.TimeUnit
 
-internal class TaskOutputsBackup(private val outputs: FileCollection) {
-    private val previousOutputs: Map<File, ByteArray>
+/**
+ * Snapshot of task outputs which is restored if an incremental build fails.
+ *
+ * Files under [linkedOutputs] are expected to be only deleted or replaced by the compiler, never modified in place, so they
+ * are backed up as hard links in [stashDir]: no content is copied, and a file keeps its old content in the stash once the
+ * compiler deletes or replaces it. Other outputs (e.g. IC caches, which are updated in place) are copied into [stashDir].
+ * Restoring moves the stashed files back, which is a rename when the stash is on the same file system. If the stash
+ * can't be written, remaining files are kept in memory.
+ *
+ * A linked file modified in place (e.g. by a compiler of another version or by a compiler plugin) changes its stashed
+ * copy as well. The size and modification time of every link are checked before restoring, and if any of them has changed,
+ * outputs are only deleted: the next build is then non-incremental, as it would be without a backup.
+ */
+internal class TaskOutputsBackup(
+    private val outputs: FileCollection,
+    private val stashDir: File,
+    linkedOutputs: FileCollection? = null
+) {
+    private val stashedOutputs = HashMap<File, File>()
+    private val linkedCopyStamps = HashMap<File, FileStamp>()
+    private val inMemoryOutputs = HashMap<File, ByteArray>()
 
     init {
         val outputFiles = HashSet<File>()
-        outputs.forEach {
-            if (it.isDirectory) {
-                it.walk().filterTo(outputFiles, File::isFile)
-            } else if (it.isFile) {
-                outputFiles.add(it)
+        val linkedFiles = HashSet<File>()
+        fun collectFiles(roots: FileCollection, files: MutableSet<File>) {
+            roots.forEach {
+                if (it.isDirectory) {
+                    it.walk().filterTo(files, File::isFile)
+                } else if (it.isFile) {
+                    files.add(it)
+                }
             }
         }
+        collectFiles(outputs, outputFiles)
+        linkedOutputs?.let { collectFiles(it, linkedFiles) }
 
-        previousOutputs = outputFiles.keysToMap { it.readBytes() }
+        stashDir.deleteRecursively()
+        var useStash = stashDir.mkdirs()
+        for ((index, file) in outputFiles.withIndex()) {
+            if (useStash) {
+                val copy = File(stashDir, index.toString())
+                if (file in linkedFiles && tryLink(copy, file)) {
+                    stashedOutputs[file] = copy
+                    linkedCopyStamps[copy] = FileStamp(copy)
+                    continue
+                }
+                try {
+                    Files.copy(file.toPath(), copy.toPath())
+                    stashedOutputs[file] = copy
+                    continue
+                } catch (e: IOException) {
+                    useStash = false
+                }
+            }
+            inMemoryOutputs[file] = file.readBytes()
+        }
     }
 
-    fun restoreOutputs() {
+    private fun tryLink(link: File, file: File): Boolean =
+        try {
+            Files.createLink(link.toPath(), file.toPath())
+            true
+        } catch (e: IOException) {
+            false
+        } catch (e: UnsupportedOperationException) {
+            false
+        }
+
+    /**
+     * Returns `false` if the previous outputs couldn't be restored, because some of them were modified in place.
+     * Outputs are deleted in this case.
+     */
+    fun restoreOutputs(): Boolean {
         outputs.forEach {
             if (it.isDirectory) {
                 it.deleteRecursively()
@@ -35,14 +95,42 @@ internal class TaskOutputsBackup(private val outputs: FileCollection) {
             }
         }
 
-        val dirs = HashSet<File>()
+        if (linkedCopyStamps.any { (copy, stamp) -> FileStamp(copy) != stamp }) return false
 
-        for ((file, bytes) in previousOutputs) {
+        val dirs = HashSet<File>()
+        fun prepareParent(file: File) {
             val dir = file.parentFile
             if (dirs.add(dir)) {
                 dir.mkdirs()
             }
+        }
+
+        for ((file, copy) in stashedOutputs) {
+            prepareParent(file)
+            try {
+                Files.move(copy.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING)
+            } catch (e: IOException) {
+                Files.copy(copy.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING)
+            }
+        }
+        for ((file, bytes) in inMemoryOutputs) {
+            prepareParent(file)
             file.writeBytes(bytes)
         }
+        return true
+    }
+
+    fun deleteSnapshot() {
+        stashDir.deleteRecursively()
+        stashedOutputs.clear()
+        linkedCopyStamps.clear()
+        inMemoryOutputs.clear()
+    }
+
+    private data class FileStamp(val size: Long, val lastModifiedNanos: Long) {
+        constructor(file: File) : this(
+            file.length(),
+            if (file.exists()) Files.getLastModifiedTime(file.toPath()).to(TimeUnit.NANOSECONDS) else -1
+        )
     }
 }
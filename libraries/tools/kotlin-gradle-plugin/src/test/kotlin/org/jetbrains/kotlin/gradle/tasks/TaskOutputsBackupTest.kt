@@ -0,0 +1,95 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.gradle.tasks
+
+import org.gradle.api.Project
+import org.gradle.testfixtures.ProjectBuilder
+import org.junit.Assert.*
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.FileOutputStream
+import java.io.RandomAccessFile
+
+class TaskOutputsBackupTest {
+    @Rule
+    @JvmField
+    var tmp = TemporaryFolder()
+
+    private lateinit var project: Project
+    private lateinit var classesDir: File
+    private lateinit var cachesDir: File
+    private lateinit var stashDir: File
+
+    @Before
+    fun setUp() {
+        project = ProjectBuilder.builder().withProjectDir(tmp.newFolder("project")).build()
+        classesDir = tmp.newFolder("classes")
+        cachesDir = tmp.newFolder("caches")
+        stashDir = File(tmp.root, "stash")
+
+        classesDir.resolve("A.class").writeText("A")
+        classesDir.resolve("B.class").writeText("B")
+        cachesDir.resolve("cache.bin").writeText("cache")
+        // an in-place write after the backup is then guaranteed to change the modification time
+        for (file in listOf(classesDir.resolve("A.class"), classesDir.resolve("B.class"), cachesDir.resolve("cache.bin"))) {
+            file.setLastModified(OLD_TIMESTAMP)
+        }
+    }
+
+    private fun createBackup() =
+        TaskOutputsBackup(project.files(classesDir, cachesDir), stashDir, project.files(classesDir))
+
+    @Test
+    fun testRestoreAfterFailedCompile() {
+        val backup = createBackup()
+
+        // the compiler replaces and deletes class files, IC caches are updated in place
+        classesDir.resolve("A.class").delete()
+        classesDir.resolve("A.class").writeText("A2")
+        classesDir.resolve("B.class").delete()
+        classesDir.resolve("C.class").writeText("C")
+        RandomAccessFile(cachesDir.resolve("cache.bin"), "rw").use { it.write("CACHE".toByteArray()) }
+
+        assertTrue(backup.restoreOutputs())
+        assertEquals("A", classesDir.resolve("A.class").readText())
+        assertEquals("B", classesDir.resolve("B.class").readText())
+        assertFalse(classesDir.resolve("C.class").exists())
+        assertEquals("cache", cachesDir.resolve("cache.bin").readText())
+
+        backup.deleteSnapshot()
+        assertFalse(stashDir.exists())
+    }
+
+    @Test
+    fun testWriteInPlaceAfterBackup() {
+        val backup = createBackup()
+
+        // e.g. a compiler plugin, which truncates and writes an existing file, writes through the link into the stash
+        FileOutputStream(classesDir.resolve("A.class")).use { it.write("A modified in place".toByteArray()) }
+
+        assertFalse(backup.restoreOutputs())
+        assertFalse(classesDir.resolve("A.class").exists())
+        assertFalse(classesDir.resolve("B.class").exists())
+        assertFalse(cachesDir.resolve("cache.bin").exists())
+    }
+
+    @Test
+    fun testWriteInPlaceOfCopiedOutput() {
+        val backup = createBackup()
+
+        FileOutputStream(cachesDir.resolve("cache.bin")).use { it.write("modified in place".toByteArray()) }
+
+        assertTrue(backup.restoreOutputs())
+        assertEquals("cache", cachesDir.resolve("cache.bin").readText())
+    }
+
+    private companion object {
+        const val OLD_TIMESTAMP = 1_000_000_000_000L
+    }
+}
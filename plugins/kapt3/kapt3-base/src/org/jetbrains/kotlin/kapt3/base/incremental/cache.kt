@@ -133,8 +133,8 @@ class JavaClassCacheManager(val file: File) : Closeable {
     private fun maybeGetJavaCacheFromFile(): JavaClassCache {
         return if (javaCacheFile.exists()) {
             try {
-                ObjectInputStream(BufferedInputStream(javaCacheFile.inputStream())).use {
-                    it.readObject() as JavaClassCache
+                DataInputStream(BufferedInputStream(javaCacheFile.inputStream())).use {
+                    JavaClassCache.readFrom(it)
                 }
             } catch (e: Throwable) {
                 JavaClassCache()
@@ -147,11 +147,14 @@ class JavaClassCacheManager(val file: File) : Closeable {
     override fun close() {
         if (closed) return
 
-        with(javaCacheFile) {
-            delete()
-            parentFile.mkdirs()
-            ObjectOutputStream(BufferedOutputStream(outputStream())).use {
-                it.writeObject(javaCache)
+        // The java cache is rewritten only if its content changed since it was loaded
+        if (javaCache.isModified || !javaCacheFile.exists()) {
+            with(javaCacheFile) {
+                delete()
+                parentFile.mkdirs()
+                DataOutputStream(BufferedOutputStream(outputStream())).use {
+                    javaCache.writeTo(it)
+                }
             }
         }
 
@@ -5,9 +5,10 @@
 
 package org.jetbrains.kotlin.kapt3.base.incremental
 
+import java.io.DataInput
+import java.io.DataOutput
 import java.io.File
-import java.io.ObjectInputStream
-import java.io.ObjectOutputStream
+import java.io.IOException
 import java.io.Serializable
 import java.lang.IllegalArgumentException
 import java.lang.IllegalStateException
@@ -16,19 +17,25 @@ import java.net.URI
 /**
  * Stores type information about processed and generated sources. For .java files a fine-grained type information
  * exists i.e we know all referenced types. For .class files we only know which type is defined in the .class file.
+ *
+ * The cache is persisted with [writeTo] in a compact format: all type names and file URIs are stored once in a name table,
+ * and source structures refer to them by index. Reverse dependencies are not persisted, they are computed on the first query.
  */
-class JavaClassCache() : Serializable {
+class JavaClassCache() {
     private var sourceCache = mutableMapOf<URI, SourceFileStructure>()
 
-    /** Map from types to files they are mentioned in. */
-    @Transient
-    private var dependencyCache = mutableMapOf<String, MutableSet<URI>>()
+    /** Map from types to files they are mentioned in. Computed lazily from [sourceCache]. */
+    private var dependencyCache: MutableMap<String, MutableSet<URI>>? = null
 
-    @Transient
-    private var nonTransitiveCache = mutableMapOf<String, MutableSet<URI>>()
+    private var nonTransitiveCache: MutableMap<String, MutableSet<URI>>? = null
+
+    /** Whether the cache differs from the state it was loaded from, i.e. whether it needs to be written again. */
+    var isModified = true
+        private set
 
     fun addSourceStructure(sourceStructure: SourceFileStructure) {
         sourceCache[sourceStructure.sourceFile] = sourceStructure
+        isModified = true
     }
 
     /** Returns all types defined in these files. */
@@ -42,36 +49,48 @@ class JavaClassCache() : Serializable {
         return typesFromFiles
     }
 
-    private fun readObject(input: ObjectInputStream) {
-        @Suppress("UNCHECKED_CAST")
-        sourceCache = input.readObject() as MutableMap<URI, SourceFileStructure>
-
-        dependencyCache = HashMap(sourceCache.size * 4)
+    private fun computeDependencyCaches() {
+        val dependencyCache = HashMap<String, MutableSet<URI>>(sourceCache.size * 4)
         for (sourceInfo in sourceCache.values) {
             for (mentionedType in sourceInfo.getMentionedTypes()) {
-                val dependants = dependencyCache[mentionedType] ?: mutableSetOf()
-                dependants.add(sourceInfo.sourceFile)
-                dependencyCache[mentionedType] = dependants
+                dependencyCache.getOrPut(mentionedType) { mutableSetOf() }.add(sourceInfo.sourceFile)
             }
             // Treat referred constants as ABI dependencies until we start supporting per-constant classpath updates.
             for (mentionedConstants in sourceInfo.getMentionedConstants().keys) {
-                val dependants = dependencyCache[mentionedConstants] ?: mutableSetOf()
-                dependants.add(sourceInfo.sourceFile)
-                dependencyCache[mentionedConstants] = dependants
+                dependencyCache.getOrPut(mentionedConstants) { mutableSetOf() }.add(sourceInfo.sourceFile)
             }
         }
-        nonTransitiveCache = HashMap(sourceCache.size * 2)
+        val nonTransitiveCache = HashMap<String, MutableSet<URI>>(sourceCache.size * 2)
         for (sourceInfo in sourceCache.values) {
             for (privateType in sourceInfo.getPrivateTypes()) {
-                val dependants = nonTransitiveCache[privateType] ?: mutableSetOf()
-                dependants.add(sourceInfo.sourceFile)
-                nonTransitiveCache[privateType] = dependants
+                nonTransitiveCache.getOrPut(privateType) { mutableSetOf() }.add(sourceInfo.sourceFile)
             }
         }
+        this.dependencyCache = dependencyCache
+        this.nonTransitiveCache = nonTransitiveCache
     }
 
-    private fun writeObject(output: ObjectOutputStream) {
-        output.writeObject(sourceCache)
+    fun writeTo(output: DataOutput) {
+        val names = LinkedHashMap<String, Int>()
+        fun id(name: String) = names.getOrPut(name) { names.size }
+
+        val structures = sourceCache.values.map { structure -> structure.toIds(::id) }
+
+        output.writeInt(FORMAT_VERSION)
+        output.writeInt(names.size)
+        for (name in names.keys) {
+            output.writeUTF(name)
+        }
+        output.writeInt(structures.size)
+        for (structure in structures) {
+            for (ids in structure) {
+                output.writeInt(ids.size)
+                for (id in ids) {
+                    output.writeInt(id)
+                }
+            }
+        }
+        isModified = false
     }
 
     fun isAlreadyProcessed(sourceFile: URI): Boolean {
@@ -101,6 +120,12 @@ class JavaClassCache() : Serializable {
      * classpath types).
      */
     fun getAllImpactedTypes(changes: Changes): MutableSet<String> {
+        if (dependencyCache == null) {
+            computeDependencyCaches()
+        }
+        val dependencyCache = dependencyCache!!
+        val nonTransitiveCache = nonTransitiveCache!!
+
         fun findImpactedTypes(changedType: String, transitiveDeps: MutableSet<String>, nonTransitiveDeps: MutableSet<String>) {
             dependencyCache[changedType]?.let { impactedSources ->
                 impactedSources.forEach {
@@ -135,6 +160,7 @@ class JavaClassCache() : Serializable {
 
     internal fun invalidateAll() {
         sourceCache.clear()
+        isModified = true
     }
 
     fun getSourceForType(type: String): File {
@@ -155,6 +181,50 @@ class JavaClassCache() : Serializable {
         }
 
         allSources.forEach { sourceCache.remove(it) }
+        if (allSources.isNotEmpty()) {
+            isModified = true
+        }
+    }
+
+    companion object {
+        private const val FORMAT_VERSION = 1
+
+        /** Reads the cache written by [writeTo], type names are shared between all source structures. */
+        fun readFrom(input: DataInput): JavaClassCache {
+            val version = input.readInt()
+            if (version != FORMAT_VERSION) throw IOException("Unsupported java class cache format version $version")
+
+            val names = Array(input.readInt()) { input.readUTF() }
+            fun readIds(): IntArray = IntArray(input.readInt()) { input.readInt() }
+            fun readNames(): List<String> = readIds().map { names[it] }
+
+            fun readConstants(): Map<String, Set<String>> {
+                val ids = readIds()
+                val constants = HashMap<String, Set<String>>()
+                var index = 0
+                while (index < ids.size) {
+                    val count = ids[index + 1]
+                    constants[names[ids[index]]] = (index + 2 until index + 2 + count).mapTo(HashSet()) { names[ids[it]] }
+                    index += 2 + count
+                }
+                return constants
+            }
+
+            val cache = JavaClassCache()
+            repeat(input.readInt()) {
+                val structure = SourceFileStructure.fromNames(
+                    sourceFile = URI(readNames().single()),
+                    declaredTypes = readNames(),
+                    mentionedTypes = readNames(),
+                    privateTypes = readNames(),
+                    mentionedAnnotations = readNames(),
+                    mentionedConstants = readConstants()
+                )
+                cache.sourceCache[structure.sourceFile] = structure
+            }
+            cache.isModified = false
+            return cache
+        }
     }
 }
 
@@ -202,6 +272,46 @@ class SourceFileStructure(
             mentionedConstants.getOrPut(containingClass) { HashSet() }.add(name)
         }
     }
+
+    /**
+     * Maps this structure to lists of name ids, in the order expected by [fromNames].
+     * Mentioned constants are flattened to `containingClassId, count, nameIds...` sequences.
+     */
+    internal fun toIds(id: (String) -> Int): List<IntArray> {
+        val constants = ArrayList<Int>()
+        for ((containingClass, names) in mentionedConstants) {
+            constants.add(id(containingClass))
+            constants.add(names.size)
+            names.mapTo(constants, id)
+        }
+        return listOf(
+            intArrayOf(id(sourceFile.toString())),
+            declaredTypes.map(id).toIntArray(),
+            mentionedTypes.map(id).toIntArray(),
+            privateTypes.map(id).toIntArray(),
+            mentionedAnnotations.map(id).toIntArray(),
+            constants.toIntArray()
+        )
+    }
+
+    internal companion object {
+        fun fromNames(
+            sourceFile: URI,
+            declaredTypes: List<String>,
+            mentionedTypes: List<String>,
+            privateTypes: List<String>,
+            mentionedAnnotations: List<String>,
+            mentionedConstants: Map<String, Set<String>>
+        ): SourceFileStructure = SourceFileStructure(sourceFile).also {
+            it.declaredTypes.addAll(declaredTypes)
+            it.mentionedTypes.addAll(mentionedTypes)
+            it.privateTypes.addAll(privateTypes)
+            it.mentionedAnnotations.addAll(mentionedAnnotations)
+            mentionedConstants.forEach { (containingClass, names) ->
+                it.mentionedConstants[containingClass] = names.toMutableSet()
+            }
+        }
+    }
 }
 
 
@@ -5,8 +5,23 @@
 
 package org.jetbrains.kotlin.kapt3.base.util
 
+import java.io.File
+
 inline fun <T> measureTimeMillisWithResult(block: () -> T): Pair<Long, T> {
     val start = System.currentTimeMillis()
     val result = block()
     return Pair(System.currentTimeMillis() - start, result)
-}
\ No newline at end of file
+}
+
+/**
+ * Writes [bytes] unless the file already has exactly this content, so that its timestamp is preserved.
+ * Returns `true` if the file was written.
+ */
+fun File.writeBytesIfChanged(bytes: ByteArray): Boolean {
+    if (isFile && length() == bytes.size.toLong() && readBytes().contentEquals(bytes)) {
+        return false
+    }
+
+    writeBytes(bytes)
+    return true
+}
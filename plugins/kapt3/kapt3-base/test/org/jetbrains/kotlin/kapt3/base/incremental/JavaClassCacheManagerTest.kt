@@ -6,6 +6,7 @@
 package org.jetbrains.kotlin.kapt3.base.incremental;
 
 import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
 import org.junit.Assert.assertTrue
 import org.junit.Before
 import org.junit.Rule
@@ -165,6 +166,28 @@ class JavaClassCacheManagerTest {
         )
     }
 
+    @Test
+    fun testStructureSurvivesReload() {
+        SourceFileStructure(File("Src.java").toURI()).also {
+            it.addDeclaredType("test.Src")
+            it.addMentionedType("test.Mentioned")
+            it.addPrivateType("test.Private")
+            it.addMentionedAnnotations("test.Annotation")
+            it.addMentionedConstant("test.Constants", "FIRST")
+            it.addMentionedConstant("test.Constants", "SECOND")
+            cache.javaCache.addSourceStructure(it)
+        }
+        prepareForIncremental()
+
+        assertFalse(cache.javaCache.isModified)
+        val structure = cache.javaCache.getStructure(File("Src.java").absoluteFile)!!
+        assertEquals(setOf("test.Src"), structure.getDeclaredTypes())
+        assertEquals(setOf("test.Mentioned"), structure.getMentionedTypes())
+        assertEquals(setOf("test.Private"), structure.getPrivateTypes())
+        assertEquals(setOf("test.Annotation"), structure.getMentionedAnnotations())
+        assertEquals(mapOf("test.Constants" to setOf("FIRST", "SECOND")), structure.getMentionedConstants())
+    }
+
     private fun prepareForIncremental() {
         cache.close()
         cache = JavaClassCacheManager(cacheDir)
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.kapt3.base.util
+
+import org.junit.Assert.*
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class WriteBytesIfChangedTest {
+    @JvmField
+    @Rule
+    val tmp = TemporaryFolder()
+
+    @Test
+    fun testNewFile() {
+        val file = tmp.root.resolve("Stub.java")
+        assertTrue(file.writeBytesIfChanged("class Stub {}".toByteArray()))
+        assertEquals("class Stub {}", file.readText())
+    }
+
+    @Test
+    fun testUnchangedContent() {
+        val file = tmp.newFile("Stub.java")
+        file.writeText("class Stub {}")
+        file.setLastModified(OLD_TIMESTAMP)
+
+        assertFalse(file.writeBytesIfChanged("class Stub {}".toByteArray()))
+        assertEquals(OLD_TIMESTAMP, file.lastModified())
+    }
+
+    @Test
+    fun testChangedContent() {
+        val file = tmp.newFile("Stub.java")
+        file.writeText("class Stub {}")
+        file.setLastModified(OLD_TIMESTAMP)
+
+        // Same length, different content
+        assertTrue(file.writeBytesIfChanged("class Stab {}".toByteArray()))
+        assertEquals("class Stab {}", file.readText())
+        assertNotEquals(OLD_TIMESTAMP, file.lastModified())
+
+        assertTrue(file.writeBytesIfChanged("class Stub { int x; }".toByteArray()))
+        assertEquals("class Stub { int x; }", file.readText())
+    }
+
+    private companion object {
+        const val OLD_TIMESTAMP = 1_000_000_000_000L
+    }
+}
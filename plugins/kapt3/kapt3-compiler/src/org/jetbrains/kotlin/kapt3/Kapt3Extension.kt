@@ -53,6 +53,7 @@ import org.jetbrains.kotlin.kapt3.base.util.KaptBaseError
 import org.jetbrains.kotlin.kapt3.base.util.getPackageNameJava9Aware
 import org.jetbrains.kotlin.kapt3.base.util.info
 import org.jetbrains.kotlin.kapt3.base.util.isJava11OrLater
+import org.jetbrains.kotlin.kapt3.base.util.writeBytesIfChanged
 import org.jetbrains.kotlin.kapt3.diagnostic.KaptError
 import org.jetbrains.kotlin.kapt3.stubs.ClassFileToSourceStubConverter
 import org.jetbrains.kotlin.kapt3.stubs.ClassFileToSourceStubConverter.KaptStub
@@ -303,7 +304,9 @@ abstract class AbstractKapt3Extension(
     }
 
     protected open fun saveStubs(kaptContext: KaptContext, stubs: List<KaptStub>) {
-        for (kaptStub in stubs) {
+        // Pretty-printing needs the javac context which is not thread-safe, so stubs are rendered here
+        // and only written in parallel. Unchanged stubs are not rewritten to keep their timestamps.
+        val renderedStubs = stubs.map { kaptStub ->
             val stub = kaptStub.file
             val className = (stub.defs.first { it is JCTree.JCClassDecl } as JCTree.JCClassDecl).simpleName.toString()
 
@@ -311,11 +314,17 @@ abstract class AbstractKapt3Extension(
             val packageDir = if (packageName.isEmpty()) options.stubsOutputDir else File(options.stubsOutputDir, packageName.replace('.', '/'))
             packageDir.mkdirs()
 
-            val sourceFile = File(packageDir, "$className.java")
-            sourceFile.writeText(stub.prettyPrint(kaptContext.context))
+            Triple(kaptStub, File(packageDir, "$className.java"), stub.prettyPrint(kaptContext.context))
+        }
 
-            kaptStub.writeMetadataIfNeeded(forSource = sourceFile)
+        val (stubWritingTime) = measureTimeMillis {
+            renderedStubs.parallelStream().forEach { (kaptStub, sourceFile, text) ->
+                sourceFile.writeBytesIfChanged(text.toByteArray())
+                kaptStub.writeMetadataIfNeeded(forSource = sourceFile)
+            }
         }
+
+        logger.info { "Writing Java stubs took $stubWritingTime ms" }
     }
 
     protected open fun saveIncrementalData(
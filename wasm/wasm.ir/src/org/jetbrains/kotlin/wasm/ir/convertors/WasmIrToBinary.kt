@@ -11,10 +11,22 @@ import org.jetbrains.kotlin.wasm.ir.*
 import java.io.ByteArrayOutputStream
 import java.io.OutputStream
 
-class WasmIrToBinary(outputStream: OutputStream, val module: WasmModule) {
-    var b: ByteWriter = ByteWriter.OutputStream(outputStream)
+/**
+ * Writes [module] in the binary format.
+ *
+ * The whole module is encoded into a single growable [ByteWriter.Buffer]: payload sizes of sections and
+ * function bodies are reserved as fixed-width LEB128 slots and patched after the payload is written,
+ * so nothing is copied between temporary writers. The result is flushed to [outputStream] once.
+ */
+class WasmIrToBinary(private val outputStream: OutputStream, val module: WasmModule) {
+    var b: ByteWriter = ByteWriter.Buffer()
 
     fun appendWasmModule() {
+        appendWasmModuleContent()
+        (b as? ByteWriter.Buffer)?.writeTo(outputStream)
+    }
+
+    private fun appendWasmModuleContent() {
         b.writeUInt32(0x6d736100u) // WebAssembly magic
         b.writeUInt32(1u)          // version
 
@@ -164,15 +176,24 @@ class WasmIrToBinary(outputStream: OutputStream, val module: WasmModule) {
         withVarUInt32PayloadSizePrepended { content() }
     }
 
-    @OptIn(ExperimentalStdlibApi::class)
     fun withVarUInt32PayloadSizePrepended(fn: () -> Unit) {
-        val previousWriter = b
-        val newWriter = b.createTemp()
-        b = newWriter
-        fn()
-        b = previousWriter
-        b.writeVarUInt32(newWriter.written)
-        b.write(newWriter)
+        when (val writer = b) {
+            is ByteWriter.Buffer -> {
+                val slot = writer.reserveVarUInt32()
+                val start = writer.written
+                fn()
+                writer.patchVarUInt32(slot, (writer.written - start).toUInt())
+            }
+            is ByteWriter.OutputStream -> {
+                val newWriter = writer.createTemp()
+                b = newWriter
+                fn()
+                b = writer
+                writer.writeVarUInt32(newWriter.written)
+                writer.write(newWriter)
+            }
+            else -> error("Unsupported writer: $writer")
+        }
     }
 
     private fun appendVectorSize(size: Int) {
@@ -425,10 +446,8 @@ class WasmIrToBinary(outputStream: OutputStream, val module: WasmModule) {
 abstract class ByteWriter {
     abstract val written: Int
 
-    abstract fun write(v: ByteWriter)
     abstract fun writeByte(v: Byte)
     abstract fun writeBytes(v: ByteArray)
-    abstract fun createTemp(): ByteWriter
 
     fun writeUInt32(v: UInt) {
         writeByte(v.toByte())
@@ -506,7 +525,7 @@ abstract class ByteWriter {
     class OutputStream(val os: java.io.OutputStream) : ByteWriter() {
         override var written = 0; private set
 
-        override fun write(v: ByteWriter) {
+        fun write(v: ByteWriter) {
             if (v !is OutputStream || v.os !is ByteArrayOutputStream) error("Writer not created from createTemp")
             v.os.writeTo(os)
             written += v.os.size()
@@ -522,6 +541,64 @@ abstract class ByteWriter {
             written += v.size
         }
 
-        override fun createTemp() = OutputStream(ByteArrayOutputStream())
+        fun createTemp() = OutputStream(ByteArrayOutputStream())
+    }
+
+    /**
+     * Growable in-memory writer supporting reserved fixed-width LEB128 slots that are patched later.
+     */
+    class Buffer(initialCapacity: Int = 64 * 1024) : ByteWriter() {
+        private var bytes = ByteArray(initialCapacity)
+
+        override var written = 0; private set
+
+        override fun writeByte(v: Byte) {
+            ensureCapacity(1)
+            bytes[written++] = v
+        }
+
+        override fun writeBytes(v: ByteArray) {
+            ensureCapacity(v.size)
+            System.arraycopy(v, 0, bytes, written, v.size)
+            written += v.size
+        }
+
+        /**
+         * Reserves [RESERVED_VAR_UINT32_SIZE] bytes for a varuint32 and returns the offset of the slot.
+         */
+        fun reserveVarUInt32(): Int {
+            val offset = written
+            ensureCapacity(RESERVED_VAR_UINT32_SIZE)
+            written += RESERVED_VAR_UINT32_SIZE
+            return offset
+        }
+
+        /**
+         * Writes [v] as a padded (non-minimal, but valid) LEB128 into a slot obtained from [reserveVarUInt32].
+         */
+        fun patchVarUInt32(offset: Int, v: UInt) {
+            var remaining = v
+            for (i in 0 until RESERVED_VAR_UINT32_SIZE - 1) {
+                bytes[offset + i] = ((remaining and 0x7fu) or 0x80u).toByte()
+                remaining = remaining shr 7
+            }
+            bytes[offset + RESERVED_VAR_UINT32_SIZE - 1] = (remaining and 0x7fu).toByte()
+        }
+
+        fun writeTo(os: java.io.OutputStream) {
+            os.write(bytes, 0, written)
+        }
+
+        private fun ensureCapacity(additional: Int) {
+            val required = written + additional
+            if (required <= bytes.size) return
+            var newSize = maxOf(bytes.size * 2, 16)
+            while (newSize < required) newSize *= 2
+            bytes = bytes.copyOf(newSize)
+        }
+
+        companion object {
+            const val RESERVED_VAR_UINT32_SIZE = 5
+        }
     }
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2010-2020 JetBrains s.r.o. and Kotlin Programming Language contributors.
+ * Use of this source code is governed by the Apache 2.0 license that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.wasm.ir
+
+import org.jetbrains.kotlin.wasm.ir.convertors.ByteWriter
+import org.jetbrains.kotlin.wasm.ir.convertors.MyByteReader
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+
+class ByteWriterBufferTest {
+    @Test
+    fun patchedSizes() {
+        val sizes = listOf(0u, 1u, 127u, 128u, 16383u, 16384u, 1u shl 21, 1u shl 28, UInt.MAX_VALUE)
+
+        val buffer = ByteWriter.Buffer(initialCapacity = 1)
+        for (size in sizes) {
+            val slot = buffer.reserveVarUInt32()
+            buffer.writeByte(42)
+            buffer.patchVarUInt32(slot, size)
+        }
+
+        val reader = MyByteReader(buffer.bytes().inputStream())
+        for (size in sizes) {
+            assertEquals(size, reader.readVarUInt32())
+            assertEquals(42.toByte(), reader.readByte())
+        }
+    }
+
+    @Test
+    fun nestedPayloads() {
+        val payload = ByteArray(1000) { it.toByte() }
+
+        val buffer = ByteWriter.Buffer(initialCapacity = 16)
+        val outerSlot = buffer.reserveVarUInt32()
+        val outerStart = buffer.written
+        val innerSlot = buffer.reserveVarUInt32()
+        val innerStart = buffer.written
+        buffer.writeBytes(payload)
+        buffer.patchVarUInt32(innerSlot, (buffer.written - innerStart).toUInt())
+        buffer.patchVarUInt32(outerSlot, (buffer.written - outerStart).toUInt())
+
+        val reader = MyByteReader(buffer.bytes().inputStream())
+        assertEquals((ByteWriter.Buffer.RESERVED_VAR_UINT32_SIZE + payload.size).toUInt(), reader.readVarUInt32())
+        assertEquals(payload.size.toUInt(), reader.readVarUInt32())
+        assertArrayEquals(payload, reader.readBytes(payload.size))
+    }
+
+    private fun ByteWriter.Buffer.bytes(): ByteArray =
+        ByteArrayOutputStream().also { writeTo(it) }.toByteArray()
+}